@@ -36,6 +36,10 @@ import java.text.SimpleDateFormat;
  *
  * <p>What's more, unlike {@link SimpleDateFormat}, Joda Time's
  * {@link DateTimeFormatter} is thread-safe!</p>
+ *
+ * <p>Joda Time reports invalid dates by throwing an exception, which is
+ * costly when many values are invalid. Subclasses may therefore check values
+ * by other means, by overriding {@link #isValidDate(String)}.</p>
  */
 public abstract class AbstractDateFormatSpecifier
     extends FormatSpecifier
@@ -46,7 +50,8 @@ public abstract class AbstractDateFormatSpecifier
     private final String errmsg;
 
     /**
-     * The {@link DateTimeFormatter} to use
+     * The {@link DateTimeFormatter} to use, {@code null} if {@link
+     * #isValidDate(String)} is overridden
      */
     private final DateTimeFormatter dtf;
 
@@ -63,16 +68,49 @@ public abstract class AbstractDateFormatSpecifier
         errmsg = "string is not a valid " + desc;
     }
 
-    @Override
-    public final void checkValue(final String fmt, final ValidationContext ctx,
-        final ValidationReport report, final JsonNode instance)
+    /**
+     * Constructor for subclasses overriding {@link #isValidDate(String)}
+     *
+     * @param desc the description of the date format
+     */
+    protected AbstractDateFormatSpecifier(final String desc)
+    {
+        super(NodeType.STRING);
+        dtf = null;
+        errmsg = "string is not a valid " + desc;
+    }
+
+    /**
+     * Check whether a value is a valid date
+     *
+     * <p>The default implementation parses the value with the {@link
+     * DateTimeFormatter} built from the format given to the constructor.</p>
+     *
+     * @param value the value
+     * @return true if the value is valid
+     */
+    protected boolean isValidDate(final String value)
     {
         try {
-            dtf.parseDateTime(instance.textValue());
+            dtf.parseDateTime(value);
+            return true;
         } catch (IllegalArgumentException ignored) {
-            final Message.Builder msg = newMsg(fmt).setMessage(errmsg)
-                .addInfo("value", instance);
-            report.addMessage(msg.build());
+            return false;
         }
     }
+
+    @Override
+    public final void checkValue(final String fmt, final ValidationContext ctx,
+        final ValidationReport report, final JsonNode instance)
+    {
+        if (isValidDate(instance.textValue()))
+            return;
+
+        if (report.failFast())
+            return;
+
+        final Message.Builder msg = newMsg(fmt).setMessage(errmsg)
+            .addInfo("value", instance);
+        report.addMessage(msg.build());
+    }
 }
@@ -19,6 +19,9 @@ package org.eel.kitchen.jsonschema.format;
 
 /**
  * Validator for the {@code date-time} format specification
+ *
+ * <p>Values are checked by {@link DateTimeScanner}, which accepts the same
+ * values as Joda Time with pattern {@code yyyy-MM-dd'T'HH:mm:ssZ} does.</p>
  */
 public final class DateTimeFormatSpecifier
     extends AbstractDateFormatSpecifier
@@ -33,6 +36,12 @@ public final class DateTimeFormatSpecifier
 
     private DateTimeFormatSpecifier()
     {
-        super("yyyy-MM-dd'T'HH:mm:ssZ", "ISO 8601 date");
+        super("ISO 8601 date");
+    }
+
+    @Override
+    protected boolean isValidDate(final String value)
+    {
+        return DateTimeScanner.isValid(value);
     }
 }
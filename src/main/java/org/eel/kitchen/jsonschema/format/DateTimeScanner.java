@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+/**
+ * Scanner for {@code date-time} values
+ *
+ * <p>This scanner accepts exactly the values which Joda Time's parser for
+ * pattern {@code yyyy-MM-dd'T'HH:mm:ssZ} accepts, but it works directly on
+ * the input string: it allocates no objects and throws no exceptions. Like
+ * Joda Time's parser, it is lenient in some respects:</p>
+ *
+ * <ul>
+ *     <li>the year may have from 1 to 9 digits, and an optional sign;</li>
+ *     <li>other fields may have one or two digits;</li>
+ *     <li>the {@code T} separator and zero offset {@code Z} are case
+ *     insensitive;</li>
+ *     <li>the offset may be {@code Z}, or a sign followed by hours, then
+ *     optionally minutes, seconds and milliseconds, with or without
+ *     separators.</li>
+ * </ul>
+ *
+ * <p>Field values are checked against the proleptic Gregorian calendar used by
+ * Joda Time's ISO chronology, including leap years.</p>
+ */
+final class DateTimeScanner
+{
+    /**
+     * Minimum year supported by Joda Time
+     */
+    private static final long MIN_YEAR = -292275054L;
+
+    /**
+     * Maximum year supported by Joda Time
+     */
+    private static final long MAX_YEAR = 292278993L;
+
+    private static final int MAX_YEAR_DIGITS = 9;
+
+    private static final int[] DAYS_IN_MONTH
+        = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    /**
+     * Returned by parsing methods on failure
+     */
+    private static final int FAIL = -1;
+
+    private DateTimeScanner()
+    {
+    }
+
+    /**
+     * Check whether a string is a valid date-time value
+     *
+     * @param input the string
+     * @return true if the value is valid
+     */
+    static boolean isValid(final String input)
+    {
+        int start, pos;
+
+        // Year
+        pos = year(input, 0);
+        if (pos == FAIL)
+            return false;
+        final long year = value(input, 0, pos);
+        if (year < MIN_YEAR || year > MAX_YEAR)
+            return false;
+        pos = literal(input, pos, '-');
+
+        // Month
+        start = pos;
+        pos = field(input, pos);
+        if (pos == FAIL)
+            return false;
+        final int month = (int) value(input, start, pos);
+        if (month < 1 || month > 12)
+            return false;
+        pos = literal(input, pos, '-');
+
+        // Day
+        start = pos;
+        pos = field(input, pos);
+        if (pos == FAIL)
+            return false;
+        final int day = (int) value(input, start, pos);
+        if (day < 1 || day > daysInMonth(year, month))
+            return false;
+        pos = literal(input, pos, 'T');
+
+        // Hours, minutes, seconds
+        pos = field(input, pos, 23);
+        pos = literal(input, pos, ':');
+        pos = field(input, pos, 59);
+        pos = literal(input, pos, ':');
+        pos = field(input, pos, 59);
+
+        return offset(input, pos) == input.length();
+    }
+
+    /**
+     * Parse the year: an optional sign, then up to nine digits
+     *
+     * <p>Joda Time does not count a plus sign as a digit, but still extends
+     * its digit limit by one: ten digits may follow a plus sign.</p>
+     *
+     * @return the position after the year, or {@link #FAIL}
+     */
+    private static int year(final String input, final int start)
+    {
+        final int len = input.length();
+        int pos = start;
+        int maxDigits = MAX_YEAR_DIGITS;
+
+        if (pos < len && isSign(input.charAt(pos))) {
+            if (pos + 1 >= len || !isDigit(input.charAt(pos + 1)))
+                return FAIL;
+            if (input.charAt(pos) == '+')
+                maxDigits++;
+            pos++;
+        }
+
+        final int end = Math.min(pos + maxDigits, len);
+        final int digitsStart = pos;
+
+        while (pos < end && isDigit(input.charAt(pos)))
+            pos++;
+
+        return pos == digitsStart ? FAIL : pos;
+    }
+
+    /**
+     * Parse an unsigned field of one or two digits
+     *
+     * @return the position after the field, or {@link #FAIL}
+     */
+    private static int field(final String input, final int start)
+    {
+        final int len = input.length();
+
+        if (start == FAIL || start >= len || !isDigit(input.charAt(start)))
+            return FAIL;
+
+        final int pos = start + 1;
+
+        return pos < len && isDigit(input.charAt(pos)) ? pos + 1 : pos;
+    }
+
+    /**
+     * Parse an unsigned field of one or two digits, with a maximum value
+     *
+     * @return the position after the field, or {@link #FAIL}
+     */
+    private static int field(final String input, final int start,
+        final int max)
+    {
+        final int pos = field(input, start);
+
+        if (pos == FAIL || value(input, start, pos) > max)
+            return FAIL;
+
+        return pos;
+    }
+
+    /**
+     * Match a literal character, case insensitively
+     *
+     * @return the position after the character, or {@link #FAIL}
+     */
+    private static int literal(final String input, final int pos,
+        final char c)
+    {
+        if (pos == FAIL || pos >= input.length())
+            return FAIL;
+
+        return Character.toUpperCase(input.charAt(pos)) == c ? pos + 1 : FAIL;
+    }
+
+    /**
+     * Parse the offset
+     *
+     * <p>This mimics Joda Time's offset parser: after the sign, two digits of
+     * hours are required; minutes, seconds and fractional seconds (up to
+     * three digits) may follow, either all with separators or all without.
+     * </p>
+     *
+     * @return the position after the offset, or {@link #FAIL}
+     */
+    private static int offset(final String input, final int start)
+    {
+        if (start == FAIL)
+            return FAIL;
+
+        final int len = input.length();
+
+        if (literal(input, start, 'Z') != FAIL)
+            return start + 1;
+
+        if (len - start <= 1)
+            return FAIL;
+
+        final char sign = input.charAt(start);
+
+        if (!isSign(sign))
+            return FAIL;
+
+        int pos = twoDigits(input, start + 1, 23);
+
+        if (pos == FAIL || pos >= len)
+            return pos;
+
+        // Minutes
+        final boolean separators = input.charAt(pos) == ':';
+
+        if (separators)
+            pos++;
+        else if (!isDigit(input.charAt(pos)))
+            return pos;
+
+        pos = twoDigits(input, pos, 59);
+
+        if (pos == FAIL || pos >= len)
+            return pos;
+
+        // Seconds
+        if (separators) {
+            if (input.charAt(pos) != ':')
+                return pos;
+            pos++;
+        } else if (!isDigit(input.charAt(pos)))
+            return pos;
+
+        pos = twoDigits(input, pos, 59);
+
+        if (pos == FAIL || pos >= len)
+            return pos;
+
+        // Milliseconds
+        if (separators) {
+            final char c = input.charAt(pos);
+            if (c != '.' && c != ',')
+                return pos;
+            pos++;
+        } else if (!isDigit(input.charAt(pos)))
+            return pos;
+
+        final int end = Math.min(pos + 3, len);
+        final int digitsStart = pos;
+
+        while (pos < end && isDigit(input.charAt(pos)))
+            pos++;
+
+        return pos == digitsStart ? FAIL : pos;
+    }
+
+    /**
+     * Parse exactly two digits, with a maximum value
+     *
+     * @return the position after the digits, or {@link #FAIL}
+     */
+    private static int twoDigits(final String input, final int start,
+        final int max)
+    {
+        if (start + 1 >= input.length() || !isDigit(input.charAt(start))
+            || !isDigit(input.charAt(start + 1)))
+            return FAIL;
+
+        return value(input, start, start + 2) > max ? FAIL : start + 2;
+    }
+
+    /**
+     * Return the value of a (possibly signed) number
+     */
+    private static long value(final String input, final int start,
+        final int end)
+    {
+        final char first = input.charAt(start);
+        final boolean negative = first == '-';
+        long ret = 0L;
+
+        for (int i = isSign(first) ? start + 1 : start; i < end; i++)
+            ret = ret * 10 + input.charAt(i) - '0';
+
+        return negative ? -ret : ret;
+    }
+
+    private static int daysInMonth(final long year, final int month)
+    {
+        if (month != 2)
+            return DAYS_IN_MONTH[month - 1];
+
+        final boolean leap = year % 4 == 0
+            && (year % 100 != 0 || year % 400 == 0);
+
+        return leap ? 29 : 28;
+    }
+
+    private static boolean isSign(final char c)
+    {
+        return c == '+' || c == '-';
+    }
+
+    private static boolean isDigit(final char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -24,9 +24,6 @@ import org.eel.kitchen.jsonschema.report.ValidationReport;
 import org.eel.kitchen.jsonschema.util.NodeType;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
-import javax.mail.internet.AddressException;
-import javax.mail.internet.InternetAddress;
-
 /**
  * Validator for the {@code email} format specification.
  *
@@ -37,6 +34,9 @@ import javax.mail.internet.InternetAddress;
  * ValidationFeature#STRICT_RFC_CONFORMANCE} validation feature before building
  * your schema factory.</p>
  *
+ * <p>Only bare addresses are accepted: see {@link EmailScanner} for the exact
+ * syntax.</p>
+ *
  * @see ValidationFeature
  */
 public final class EmailFormatSpecifier
@@ -58,20 +58,18 @@ public final class EmailFormatSpecifier
     public void checkValue(final String fmt, final ValidationContext ctx,
         final ValidationReport report, final JsonNode instance)
     {
-        // Yup, that is kind of misnamed. But the problem is with the
-        // InternetAddress constructor in the first place which "enforces" a
-        // syntax which IS NOT strictly RFC compliant.
         final boolean strictRFC
             = ctx.hasFeature(ValidationFeature.STRICT_RFC_CONFORMANCE);
 
-        try {
-            // Which means we actually invert it.
-            new InternetAddress(instance.textValue(), !strictRFC);
-        } catch (AddressException ignored) {
-            final Message.Builder msg = newMsg(fmt)
-                .setMessage("string is not a valid email address")
-                .addInfo("value", instance);
-            report.addMessage(msg.build());
-        }
+        if (EmailScanner.isValid(instance.textValue(), !strictRFC))
+            return;
+
+        if (report.failFast())
+            return;
+
+        final Message.Builder msg = newMsg(fmt)
+            .setMessage("string is not a valid email address")
+            .addInfo("value", instance);
+        report.addMessage(msg.build());
     }
 }
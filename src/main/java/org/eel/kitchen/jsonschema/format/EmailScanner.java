@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+/**
+ * Scanner for email addresses
+ *
+ * <p>This scanner checks that a string is an {@code addr-spec} as defined by
+ * RFC 5322, section 3.4.1, without comments or folding whitespace:</p>
+ *
+ * <ul>
+ *     <li>the local part is either a dot atom or a quoted string;</li>
+ *     <li>the domain is either a domain literal, or a sequence of labels
+ *     separated by dots, where each label is made of ASCII letters, digits
+ *     and dashes, and neither starts nor ends with a dash (RFC 5321, section
+ *     4.1.2).</li>
+ * </ul>
+ *
+ * <p>Display names ({@code John Doe <john@example.com>}) and groups are not
+ * accepted. The domain part can be made optional.</p>
+ */
+final class EmailScanner
+{
+    private static final String ATEXT_SPECIALS = "!#$%&'*+-/=?^_`{|}~";
+
+    private EmailScanner()
+    {
+    }
+
+    /**
+     * Check whether a string is a valid email address
+     *
+     * @param input the string
+     * @param requireDomain whether the domain part is mandatory
+     * @return true if the address is valid
+     */
+    static boolean isValid(final String input, final boolean requireDomain)
+    {
+        final int length = input.length();
+        final int at = length > 0 && input.charAt(0) == '"'
+            ? quotedStringEnd(input, length) : dotAtomEnd(input, length);
+
+        if (at == -1)
+            return false;
+
+        if (at == length)
+            return !requireDomain;
+
+        if (input.charAt(at) != '@' || at + 1 == length)
+            return false;
+
+        return input.charAt(at + 1) == '['
+            ? isDomainLiteral(input, at + 2, length)
+            : isDomainName(input, at + 1, length);
+    }
+
+    /**
+     * Return the index following a dot atom starting at index 0
+     *
+     * @param input the string
+     * @param length the length of the string
+     * @return the index, or -1 if there is no valid dot atom
+     */
+    private static int dotAtomEnd(final String input, final int length)
+    {
+        int index = 0;
+        int start;
+
+        while (true) {
+            start = index;
+            while (index < length && isAtext(input.charAt(index)))
+                index++;
+            if (index == start)
+                return -1;
+            if (index == length || input.charAt(index) != '.')
+                return index;
+            index++;
+        }
+    }
+
+    /**
+     * Return the index following a quoted string starting at index 0
+     *
+     * @param input the string
+     * @param length the length of the string
+     * @return the index, or -1 if there is no valid quoted string
+     */
+    private static int quotedStringEnd(final String input, final int length)
+    {
+        char c;
+
+        for (int index = 1; index < length; index++) {
+            c = input.charAt(index);
+            if (c == '"')
+                return index + 1;
+            if (c == '\\') {
+                if (++index == length)
+                    return -1;
+                c = input.charAt(index);
+            }
+            if (!isPrintable(c))
+                return -1;
+        }
+
+        return -1;
+    }
+
+    private static boolean isDomainLiteral(final String input, final int start,
+        final int length)
+    {
+        if (input.charAt(length - 1) != ']')
+            return false;
+
+        char c;
+
+        for (int index = start; index < length - 1; index++) {
+            c = input.charAt(index);
+            if (c == '[' || c == ']' || c == '\\' || !isPrintable(c))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isDomainName(final String input, final int start,
+        final int length)
+    {
+        int index = start;
+        int labelStart;
+
+        while (true) {
+            labelStart = index;
+            while (index < length && isLdh(input.charAt(index)))
+                index++;
+            if (index == labelStart || input.charAt(labelStart) == '-'
+                || input.charAt(index - 1) == '-')
+                return false;
+            if (index == length)
+                return true;
+            if (input.charAt(index) != '.')
+                return false;
+            index++;
+        }
+    }
+
+    private static boolean isAtext(final char c)
+    {
+        return isLetterOrDigit(c) || ATEXT_SPECIALS.indexOf(c) != -1;
+    }
+
+    private static boolean isLdh(final char c)
+    {
+        return c == '-' || isLetterOrDigit(c);
+    }
+
+    private static boolean isLetterOrDigit(final char c)
+    {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z'
+            || c >= '0' && c <= '9';
+    }
+
+    /**
+     * Check whether a character is printable ASCII, space and tab included
+     *
+     * @param c the character
+     * @return true if the character is printable
+     */
+    private static boolean isPrintable(final char c)
+    {
+        return c == '\t' || c >= ' ' && c <= '~';
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.eel.kitchen.jsonschema.report.Message;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded cache of format check results for string values
+ *
+ * <p>Instances often contain the same string values again and again. When a
+ * factory has this cache enabled, the messages produced by {@link
+ * FormatSpecifier#checkValue(String, ValidationContext, ValidationReport,
+ * JsonNode)} for a string value are remembered, and replayed into the report
+ * the next time the same value is checked with the same format. Values of
+ * other types are always checked.</p>
+ *
+ * <p>Entries are keyed by the format name, the specifier instance and the
+ * value. A specifier registered under a name therefore never sees the results
+ * of another specifier registered under the same name. Specifiers must
+ * however give the same result for a same value each time, which is the case
+ * for all specifiers in this package. A specifier which throws an exception
+ * leaves no entry behind.</p>
+ *
+ * <p>This class is thread safe.</p>
+ *
+ * @see org.eel.kitchen.jsonschema.main.JsonSchemaFactory.Builder#enableFormatCache(long)
+ */
+public final class FormatCache
+{
+    private final Cache<Key, List<Message>> cache;
+
+    /**
+     * Create a cache with a maximum number of entries
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException maximum size is lower than 1
+     */
+    public FormatCache(final long maximumSize)
+    {
+        Preconditions.checkArgument(maximumSize > 0L,
+            "maximum size must be greater than 0");
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+            .recordStats().build();
+    }
+
+    /**
+     * Create a cache with a maximum number of entries, and which evicts
+     * entries not accessed for a given time
+     *
+     * @param maximumSize the maximum number of entries
+     * @param duration the time after which an entry is evicted
+     * @param unit the unit of {@code duration}
+     * @throws IllegalArgumentException maximum size is lower than 1, or
+     * duration is negative
+     * @throws NullPointerException unit is null
+     */
+    public FormatCache(final long maximumSize, final long duration,
+        final TimeUnit unit)
+    {
+        Preconditions.checkArgument(maximumSize > 0L,
+            "maximum size must be greater than 0");
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+            .expireAfterAccess(duration, unit).recordStats().build();
+    }
+
+    /**
+     * Validate a value against a format specifier, using cached results
+     *
+     * @param fmt the format specifier name
+     * @param specifier the format specifier
+     * @param ctx the validation context
+     * @param report the validation report
+     * @param value the value to validate
+     */
+    public void validate(final String fmt, final FormatSpecifier specifier,
+        final ValidationContext ctx, final ValidationReport report,
+        final JsonNode value)
+    {
+        if (!value.isTextual()) {
+            specifier.validate(fmt, ctx, report, value);
+            return;
+        }
+
+        final List<Message> messages;
+
+        try {
+            messages = cache.get(new Key(fmt, specifier, value.textValue()),
+                new Callable<List<Message>>()
+                {
+                    @Override
+                    public List<Message> call()
+                    {
+                        final ValidationReport tmp = new ValidationReport();
+                        specifier.validate(fmt, ctx, tmp, value);
+                        return tmp.getCurrentMessages();
+                    }
+                });
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+
+        for (final Message message: messages) {
+            if (report.failFast())
+                return;
+            if (report.addMessage(message))
+                return;
+        }
+    }
+
+    /**
+     * Return the statistics of this cache
+     *
+     * @return the statistics
+     */
+    public CacheStats stats()
+    {
+        return cache.stats();
+    }
+
+    /**
+     * Return the number of entries in this cache
+     *
+     * @return the number of entries
+     */
+    public long size()
+    {
+        return cache.size();
+    }
+
+    private static final class Key
+    {
+        private final String fmt;
+        private final FormatSpecifier specifier;
+        private final String value;
+
+        private Key(final String fmt, final FormatSpecifier specifier,
+            final String value)
+        {
+            this.fmt = fmt;
+            this.specifier = specifier;
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * (31 * fmt.hashCode()
+                + System.identityHashCode(specifier)) + value.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+
+            final Key other = (Key) obj;
+
+            return specifier == other.specifier && fmt.equals(other.fmt)
+                && value.equals(other.value);
+        }
+    }
+}
@@ -18,7 +18,6 @@
 package org.eel.kitchen.jsonschema.format;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.net.InternetDomainName;
 import org.eel.kitchen.jsonschema.main.ValidationFeature;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
@@ -35,7 +34,7 @@ import org.eel.kitchen.jsonschema.validator.ValidationContext;
  * ValidationFeature#STRICT_RFC_CONFORMANCE} validation feature before building
  * your schema factory.</p>
  *
- * <p>Guava's {@link InternetDomainName} is used for validation.</p>
+ * <p>{@link HostnameScanner} is used for validation.</p>
  *
  * @see ValidationFeature
  */
@@ -59,22 +58,29 @@ public final class HostnameFormatSpecifier
     public void checkValue(final String fmt, final ValidationContext ctx,
         final ValidationReport report, final JsonNode value)
     {
-        final Message.Builder msg = newMsg(fmt)
-            .setMessage("string is not a valid hostname")
-            .addInfo("value", value);
+        final int labels = HostnameScanner.labelCount(value.textValue());
 
-        final InternetDomainName hostname;
-        try {
-            hostname = InternetDomainName.from(value.textValue());
-        } catch (IllegalArgumentException ignored) {
-            report.addMessage(msg.build());
+        if (labels == -1) {
+            addMessage(fmt, report, value);
             return;
         }
 
         if (ctx.hasFeature(ValidationFeature.STRICT_RFC_CONFORMANCE))
             return;
 
-        if (!hostname.hasParent())
-            report.addMessage(msg.build());
+        if (labels == 1)
+            addMessage(fmt, report, value);
+    }
+
+    private void addMessage(final String fmt, final ValidationReport report,
+        final JsonNode value)
+    {
+        if (report.failFast())
+            return;
+
+        final Message.Builder msg = newMsg(fmt)
+            .setMessage("string is not a valid hostname")
+            .addInfo("value", value);
+        report.addMessage(msg.build());
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+/**
+ * Scanner for host names
+ *
+ * <p>This scanner gives the same answers as the previous implementation of
+ * the {@code host-name} format specifier, which relied on Guava's {@code
+ * InternetDomainName}, but does not allocate and never looks up public
+ * suffixes. The rules are the following:</p>
+ *
+ * <ul>
+ *     <li>labels are separated by dots; ideographic and fullwidth dots are
+ *     accepted as well, and one trailing dot is ignored;</li>
+ *     <li>the name is at most 253 characters long, and has at most 127
+ *     labels;</li>
+ *     <li>labels are 1 to 63 characters long;</li>
+ *     <li>ASCII characters in a label must be letters, digits, dashes or
+ *     underscores; other characters are not checked;</li>
+ *     <li>a label cannot start or end with a dash or an underscore;</li>
+ *     <li>the last label cannot start with a digit.</li>
+ * </ul>
+ */
+final class HostnameScanner
+{
+    private static final int MAX_LENGTH = 253;
+    private static final int MAX_LABELS = 127;
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    private HostnameScanner()
+    {
+    }
+
+    /**
+     * Count the labels of a host name
+     *
+     * @param input the host name
+     * @return the number of labels, or -1 if the host name is invalid
+     */
+    static int labelCount(final String input)
+    {
+        int length = input.length();
+
+        if (length > 0 && isDot(input.charAt(length - 1)))
+            length--;
+
+        if (length > MAX_LENGTH)
+            return -1;
+
+        int count = 0;
+        int start = 0;
+        int end;
+
+        while (true) {
+            end = start;
+            while (end < length && !isDot(input.charAt(end)))
+                end++;
+            if (++count > MAX_LABELS)
+                return -1;
+            if (!isValidLabel(input, start, end, end == length))
+                return -1;
+            if (end == length)
+                return count;
+            start = end + 1;
+        }
+    }
+
+    private static boolean isValidLabel(final String input, final int start,
+        final int end, final boolean last)
+    {
+        final int length = end - start;
+
+        if (length < 1 || length > MAX_LABEL_LENGTH)
+            return false;
+
+        char c;
+
+        for (int i = start; i < end; i++) {
+            c = input.charAt(i);
+            if (c < 0x80 && !Character.isLetterOrDigit(c) && !isDash(c))
+                return false;
+        }
+
+        if (isDash(input.charAt(start)) || isDash(input.charAt(end - 1)))
+            return false;
+
+        return !(last && Character.isDigit(input.charAt(start)));
+    }
+
+    private static boolean isDot(final char c)
+    {
+        return c == '.' || c == '\u3002' || c == '\uff0e' || c == '\uff61';
+    }
+
+    private static boolean isDash(final char c)
+    {
+        return c == '-' || c == '_';
+    }
+}
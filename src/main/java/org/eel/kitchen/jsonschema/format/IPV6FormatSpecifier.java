@@ -18,7 +18,6 @@
 package org.eel.kitchen.jsonschema.format;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.net.InetAddresses;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
 import org.eel.kitchen.jsonschema.util.NodeType;
@@ -27,15 +26,13 @@ import org.eel.kitchen.jsonschema.validator.ValidationContext;
 /**
  * Validator for the {@code ipv6} format specification
  *
- * <p>This uses Guava's {@link InetAddresses} to do the job.</p>
+ * <p>This uses {@link InetAddressScanner} to do the job.</p>
  */
 public final class IPV6FormatSpecifier
     extends FormatSpecifier
 {
     private static final FormatSpecifier instance = new IPV6FormatSpecifier();
 
-    private static final int IPV6_LENGTH = 16;
-
     private IPV6FormatSpecifier()
     {
         super(NodeType.STRING);
@@ -52,8 +49,10 @@ public final class IPV6FormatSpecifier
     {
         final String ipaddr = value.textValue();
 
-        if (InetAddresses.isInetAddress(ipaddr) && InetAddresses
-            .forString(ipaddr).getAddress().length == IPV6_LENGTH)
+        if (InetAddressScanner.isIPv6(ipaddr))
+            return;
+
+        if (report.failFast())
             return;
 
         final Message.Builder msg = newMsg(fmt)
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+/**
+ * Scanner for IP address values
+ *
+ * <p>This scanner gives the same answers as the previous implementation of
+ * the {@code ip-address} and {@code ipv6} format specifiers, which parsed
+ * values with Guava's {@code InetAddresses} and checked the length of the
+ * resulting {@link java.net.InetAddress}. It works directly on the input
+ * string, in at most two passes, and allocates nothing.</p>
+ *
+ * <p>This means it also reproduces the following behaviours:</p>
+ *
+ * <ul>
+ *     <li>digits are recognized using {@link Character#digit(char, int)},
+ *     therefore non ASCII digits are accepted;</li>
+ *     <li>IPv4 octets may not have leading zeroes, but IPv6 hextets may have
+ *     any number of them;</li>
+ *     <li>IPv6 addresses may end with an IPv4 address;</li>
+ *     <li>IPv4-mapped IPv6 addresses ({@code ::ffff:a.b.c.d}) are considered
+ *     to be IPv4 addresses, as {@link java.net.InetAddress} does.</li>
+ * </ul>
+ */
+final class InetAddressScanner
+{
+    private static final int INVALID = 0;
+    private static final int IPV4 = 1;
+    private static final int IPV6 = 2;
+
+    private static final int IPV4_PARTS = 4;
+    private static final int IPV6_PARTS = 8;
+
+    /**
+     * Index of the hextet equal to {@code 0xffff} in IPv4-mapped addresses;
+     * all preceding hextets are 0
+     */
+    private static final int MAPPED_MARKER = 5;
+
+    private InetAddressScanner()
+    {
+    }
+
+    /**
+     * Check whether a string is a valid IPv4 address
+     *
+     * @param input the string
+     * @return true if the address is valid
+     */
+    static boolean isIPv4(final String input)
+    {
+        return addressType(input) == IPV4;
+    }
+
+    /**
+     * Check whether a string is a valid IPv6 address
+     *
+     * @param input the string
+     * @return true if the address is valid
+     */
+    static boolean isIPv6(final String input)
+    {
+        return addressType(input) == IPV6;
+    }
+
+    private static int addressType(final String input)
+    {
+        final int len = input.length();
+
+        boolean hasColon = false;
+        boolean hasDot = false;
+        char c;
+
+        for (int i = 0; i < len; i++) {
+            c = input.charAt(i);
+            if (c == '.')
+                hasDot = true;
+            else if (c == ':') {
+                if (hasDot)
+                    return INVALID;
+                hasColon = true;
+            } else if (Character.digit(c, 16) == -1)
+                return INVALID;
+        }
+
+        if (hasColon)
+            return ipv6Type(input);
+
+        return hasDot && octetsValue(input, 0, len) >= 0 ? IPV4 : INVALID;
+    }
+
+    /**
+     * Return the value of a dotted quad
+     *
+     * @param input the input
+     * @param start the start index of the dotted quad
+     * @param end the end index of the dotted quad
+     * @return the value, or -1 if the dotted quad is invalid
+     */
+    private static long octetsValue(final String input, final int start,
+        final int end)
+    {
+        long ret = 0L;
+        int partStart = start;
+        int octet;
+
+        for (int part = 0; part < IPV4_PARTS; part++) {
+            int partEnd = input.indexOf('.', partStart);
+            if (partEnd == -1 || partEnd > end)
+                partEnd = end;
+            if (part == IPV4_PARTS - 1 ? partEnd != end : partEnd == end)
+                return -1L;
+            octet = octet(input, partStart, partEnd);
+            if (octet == -1)
+                return -1L;
+            ret = ret << 8 | octet;
+            partStart = partEnd + 1;
+        }
+
+        return ret;
+    }
+
+    private static int octet(final String input, final int start,
+        final int end)
+    {
+        if (start == end)
+            return -1;
+
+        if (end - start > 1 && input.charAt(start) == '0')
+            return -1;
+
+        int ret = 0;
+        int digit;
+
+        for (int i = start; i < end; i++) {
+            digit = Character.digit(input.charAt(i), 10);
+            if (digit == -1)
+                return -1;
+            ret = ret * 10 + digit;
+            if (ret > 255)
+                return -1;
+        }
+
+        return ret;
+    }
+
+    private static int hextet(final String input, final int start,
+        final int end)
+    {
+        if (start == end)
+            return -1;
+
+        int ret = 0;
+
+        for (int i = start; i < end; i++) {
+            ret = ret * 16 + Character.digit(input.charAt(i), 16);
+            if (ret > 0xffff)
+                return -1;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Determine the type of an address containing colons
+     *
+     * <p>The address is split in parts around colons. If it contains dots,
+     * the part after the last colon is a dotted quad, which counts as two
+     * parts. An empty part other than the first and last denotes {@code ::}.
+     * </p>
+     */
+    private static int ipv6Type(final String input)
+    {
+        final int len = input.length();
+        final int lastColon = input.lastIndexOf(':');
+        final boolean hasDot = input.indexOf('.', lastColon) != -1;
+        final int regionEnd = hasDot ? lastColon : len;
+
+        long quad = 0L;
+
+        if (hasDot) {
+            quad = octetsValue(input, lastColon + 1, len);
+            if (quad == -1L)
+                return INVALID;
+        }
+
+        int regionParts = 1;
+
+        for (int i = 0; i < regionEnd; i++)
+            if (input.charAt(i) == ':')
+                regionParts++;
+
+        final int parts = hasDot ? regionParts + 2 : regionParts;
+
+        if (parts < 3 || parts > IPV6_PARTS + 1)
+            return INVALID;
+
+        /*
+         * First pass: find the "::"
+         */
+        int skipIndex = -1;
+        boolean firstEmpty = false;
+        boolean lastEmpty = false;
+        int partStart = 0;
+        int partEnd;
+
+        for (int part = 0; part < regionParts; part++) {
+            partEnd = nextColon(input, partStart, regionEnd);
+            if (partEnd == partStart) {
+                if (part == 0)
+                    firstEmpty = true;
+                else if (part == parts - 1)
+                    lastEmpty = true;
+                else if (skipIndex >= 0)
+                    return INVALID;
+                else
+                    skipIndex = part;
+            }
+            partStart = partEnd + 1;
+        }
+
+        int partsHi, partsLo;
+
+        if (skipIndex >= 0) {
+            partsHi = skipIndex;
+            partsLo = parts - skipIndex - 1;
+            if (firstEmpty && --partsHi != 0)
+                return INVALID;
+            if (lastEmpty && --partsLo != 0)
+                return INVALID;
+        } else {
+            partsHi = parts;
+            partsLo = 0;
+        }
+
+        final int skipped = IPV6_PARTS - (partsHi + partsLo);
+
+        if (skipIndex >= 0 ? skipped < 1 : skipped != 0)
+            return INVALID;
+
+        /*
+         * Second pass: parse hextets, and check whether this is an
+         * IPv4-mapped address
+         */
+        boolean mapped = MAPPED_MARKER < partsHi
+            || MAPPED_MARKER >= partsHi + skipped;
+        int index, value;
+
+        partStart = 0;
+
+        for (int part = 0; part < parts; part++) {
+            partEnd = part < regionParts
+                ? nextColon(input, partStart, regionEnd) : -1;
+            if (part < partsHi)
+                index = part;
+            else if (part >= parts - partsLo)
+                index = IPV6_PARTS - (parts - part);
+            else
+                index = -1;
+            if (index != -1) {
+                if (part < regionParts)
+                    value = hextet(input, partStart, partEnd);
+                else
+                    value = (int) (part == regionParts ? quad >>> 16
+                        : quad & 0xffff);
+                if (value == -1)
+                    return INVALID;
+                if (index < MAPPED_MARKER && value != 0
+                    || index == MAPPED_MARKER && value != 0xffff)
+                    mapped = false;
+            }
+            partStart = partEnd + 1;
+        }
+
+        return mapped ? IPV4 : IPV6;
+    }
+
+    private static int nextColon(final String input, final int start,
+        final int end)
+    {
+        final int ret = input.indexOf(':', start);
+        return ret == -1 || ret > end ? end : ret;
+    }
+}
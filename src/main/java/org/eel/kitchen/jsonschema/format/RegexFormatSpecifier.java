@@ -18,9 +18,11 @@
 package org.eel.kitchen.jsonschema.format;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import org.eel.kitchen.jsonschema.main.ValidationFeature;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
 import org.eel.kitchen.jsonschema.util.NodeType;
+import org.eel.kitchen.jsonschema.util.RegexAnalyzer;
 import org.eel.kitchen.jsonschema.util.RhinoHelper;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
@@ -30,6 +32,10 @@ import org.eel.kitchen.jsonschema.validator.ValidationContext;
  * <p>Again, here, we do <b>not</b> use {@link java.util.regex} because it
  * does not fit the bill.</p>
  *
+ * <p>If the {@link ValidationFeature#REJECT_BACKTRACKING_REGEXES} feature is
+ * enabled, regexes prone to catastrophic backtracking (see {@link
+ * RegexAnalyzer}) are also rejected.</p>
+ *
  * @see RhinoHelper
  */
 public final class RegexFormatSpecifier
@@ -52,11 +58,22 @@ public final class RegexFormatSpecifier
     public void checkValue(final String fmt, final ValidationContext ctx,
         final ValidationReport report, final JsonNode value)
     {
-        if (RhinoHelper.regexIsValid(value.textValue()))
+        final String regex = value.textValue();
+        final String message;
+
+        if (!RhinoHelper.regexIsValid(regex))
+            message = "string is not a valid ECMA 262 regular expression";
+        else if (ctx.hasFeature(ValidationFeature.REJECT_BACKTRACKING_REGEXES)
+            && RegexAnalyzer.isBacktrackingProne(regex))
+            message = "regular expression is prone to catastrophic "
+                + "backtracking";
+        else
+            return;
+
+        if (report.failFast())
             return;
 
-        final Message.Builder msg = newMsg(fmt)
-            .setMessage("string is not a valid ECMA 262 regular expression")
+        final Message.Builder msg = newMsg(fmt).setMessage(message)
             .addInfo("value", value);
         report.addMessage(msg.build());
     }
@@ -52,6 +52,9 @@ public final class URIFormatSpecifier
         try {
             new URI(value.textValue());
         } catch (URISyntaxException ignored) {
+            if (report.failFast())
+                return;
+
             final Message.Builder msg = newMsg(fmt)
                 .setMessage("string is not a valid URI")
                 .addInfo("value", value);
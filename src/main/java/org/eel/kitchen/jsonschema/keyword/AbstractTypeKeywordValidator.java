@@ -97,6 +97,18 @@ public abstract class AbstractTypeKeywordValidator
             typeSet.add(NodeType.INTEGER);
     }
 
+    @Override
+    public boolean isShapeOnly()
+    {
+        return schemas.isEmpty();
+    }
+
+    @Override
+    public int getCost()
+    {
+        return schemas.isEmpty() ? CONSTANT_COST : SUBSCHEMA_COST;
+    }
+
     @Override
     public String toString()
     {
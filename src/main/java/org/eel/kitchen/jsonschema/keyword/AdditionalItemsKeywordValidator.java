@@ -72,6 +72,9 @@ public final class AdditionalItemsKeywordValidator
             return;
 
         if (instance.size() > itemsCount) {
+            if (report.failFast())
+                return;
+
             final Message.Builder msg = newMsg()
                 .setMessage("additional items are not permitted")
                 .addInfo("max", itemsCount).addInfo("found", instance.size());
@@ -79,6 +82,18 @@ public final class AdditionalItemsKeywordValidator
         }
     }
 
+    @Override
+    public boolean isShapeOnly()
+    {
+        return true;
+    }
+
+    @Override
+    public int getCost()
+    {
+        return CONSTANT_COST;
+    }
+
     @Override
     public String toString()
     {
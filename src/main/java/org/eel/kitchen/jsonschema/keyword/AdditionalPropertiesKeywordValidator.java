@@ -24,9 +24,10 @@ import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.EcmaRegexSet;
 import org.eel.kitchen.jsonschema.util.JacksonUtils;
 import org.eel.kitchen.jsonschema.util.NodeType;
-import org.eel.kitchen.jsonschema.util.RhinoHelper;
+import org.eel.kitchen.jsonschema.util.RegexBudgetExceededException;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
 import java.util.Collections;
@@ -57,6 +58,7 @@ public final class AdditionalPropertiesKeywordValidator
     private final boolean additionalOK;
     private final Set<String> properties;
     private final Set<String> patternProperties;
+    private final EcmaRegexSet regexes;
 
     public AdditionalPropertiesKeywordValidator(final JsonNode schema)
     {
@@ -66,6 +68,7 @@ public final class AdditionalPropertiesKeywordValidator
         if (additionalOK) {
             properties = Collections.emptySet();
             patternProperties = Collections.emptySet();
+            regexes = null;
             return;
         }
 
@@ -80,6 +83,10 @@ public final class AdditionalPropertiesKeywordValidator
         if (schema.has("patternProperties"))
             builder.addAll(schema.get("patternProperties").fieldNames());
         patternProperties = builder.build();
+
+        final JsonNode node = schema.path("patternProperties");
+        regexes = node.size() == 0 ? null
+            : EcmaRegexSet.forPatternProperties(node);
     }
 
     @Override
@@ -93,14 +100,26 @@ public final class AdditionalPropertiesKeywordValidator
 
         fields.removeAll(properties);
 
-        final Set<String> tmp = Sets.newHashSet();
-
-        for (final String field: fields)
-            for (final String regex: patternProperties)
-                if (RhinoHelper.regMatch(regex, field))
-                    tmp.add(field);
-
-        fields.removeAll(tmp);
+        if (regexes != null) {
+            final Set<String> tmp = Sets.newHashSet();
+
+            try {
+                for (final String field: fields)
+                    if (regexes.matchesAny(field, context.getRegexBudget()))
+                        tmp.add(field);
+            } catch (RegexBudgetExceededException e) {
+                if (report.failFast())
+                    return;
+                final Message.Builder msg = newMsg()
+                    .addInfo("regex", e.getRegex())
+                    .addInfo("budget", e.getBudget())
+                    .setMessage("regex matching exceeded its budget");
+                report.addMessage(msg.build());
+                return;
+            }
+
+            fields.removeAll(tmp);
+        }
 
         if (fields.isEmpty())
             return;
@@ -108,12 +127,27 @@ public final class AdditionalPropertiesKeywordValidator
         /*
          * Display extra properties in order in the report
          */
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg()
             .addInfo("unwanted", Ordering.natural().sortedCopy(fields))
             .setMessage("additional properties not permitted");
         report.addMessage(msg.build());
     }
 
+    @Override
+    public boolean isShapeOnly()
+    {
+        return true;
+    }
+
+    @Override
+    public int getCost()
+    {
+        return regexes == null ? LINEAR_COST : PARSING_COST;
+    }
+
     @Override
     public String toString()
     {
@@ -135,7 +135,7 @@ public final class DependenciesKeywordValidator
         for (final JsonNode subSchema: schemaDeps.values()) {
             validator = context.newValidator(subSchema);
             validator.validate(context, report, instance);
-            if (report.hasFatalError())
+            if (report.shouldStop())
                 return;
         }
     }
@@ -150,6 +150,9 @@ public final class DependenciesKeywordValidator
         if (missing.isEmpty())
             return;
 
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg()
             .setMessage("missing property dependencies")
             .addInfo("property", field).addInfo("missing", missing)
@@ -157,6 +160,18 @@ public final class DependenciesKeywordValidator
         report.addMessage(msg.build());
     }
 
+    @Override
+    public boolean isShapeOnly()
+    {
+        return schemas.isEmpty();
+    }
+
+    @Override
+    public int getCost()
+    {
+        return schemas.isEmpty() ? LINEAR_COST : SUBSCHEMA_COST;
+    }
+
     @Override
     public String toString()
     {
@@ -52,6 +52,8 @@ public final class DisallowKeywordValidator
 
         final NodeType type = NodeType.getNodeType(instance);
         if (typeSet.contains(type)) {
+            if (report.failFast())
+                return;
             msg = newMsg().addInfo("found", type).addInfo("disallowed", typeSet)
                 .setMessage("instance type is not allowed");
             report.addMessage(msg.build());
@@ -73,6 +75,8 @@ public final class DisallowKeywordValidator
                 return;
             }
             if (schemaReport.isSuccess()) {
+                if (report.failFast())
+                    return;
                 // FIXME: the day we have schema locators, add it here
                 msg = newMsg().setMessage("instance is valid against a " +
                     "disallowed schema");
@@ -49,6 +49,9 @@ public final class DivisibleByKeywordValidator
         if (remainder == 0L)
             return;
 
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg()
             .setMessage("number is not a multiple of divisibleBy")
             .addInfo("value", instance).addInfo("divisor", number);
@@ -72,6 +75,9 @@ public final class DivisibleByKeywordValidator
         if (remainder.compareTo(BigDecimal.ZERO) == 0)
             return;
 
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg()
             .setMessage("number is not a multiple of divisibleBy")
             .addInfo("value", instance).addInfo("divisor", number);
@@ -18,35 +18,38 @@
 package org.eel.kitchen.jsonschema.keyword;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.collect.ImmutableSet;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
 import org.eel.kitchen.jsonschema.util.NodeType;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
-import java.util.Set;
-
 /**
  * Validator for the {@code enum} keyword
+ *
+ * <p>Enum values are compiled into an {@link EnumMatcher} when the validator
+ * is built.</p>
  */
 public final class EnumKeywordValidator
     extends KeywordValidator
 {
     private final JsonNode enumNode;
-    private final Set<JsonNode> enumValues;
+    private final EnumMatcher matcher;
 
     public EnumKeywordValidator(final JsonNode schema)
     {
         super("enum", NodeType.values());
         enumNode = schema.get(keyword);
-        enumValues = ImmutableSet.copyOf(enumNode);
+        matcher = new EnumMatcher(enumNode);
     }
 
     @Override
     public void validate(final ValidationContext context,
         final ValidationReport report, final JsonNode instance)
     {
-        if (enumValues.contains(instance))
+        if (matcher.contains(instance))
+            return;
+
+        if (report.failFast())
             return;
 
         final Message.Builder msg = newMsg()
@@ -62,9 +65,9 @@ public final class EnumKeywordValidator
          * Enum values may be arbitrarily complex: we therefore choose to only
          * print the number of possible values instead of each possible value.
          *
-         * By virtue of syntax validation, we also know that enumValues will
-         * never be empty.
+         * By virtue of syntax validation, we also know that enumNode will
+         * never be empty, and that its elements are unique.
          */
-        return keyword + ": " + enumValues.size() + " possible value(s)";
+        return keyword + ": " + enumNode.size() + " possible value(s)";
     }
 }
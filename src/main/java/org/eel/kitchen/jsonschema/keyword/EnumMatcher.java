@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Longs;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Membership test for the values of an {@code enum}
+ *
+ * <p>Values are partitioned by node class when the matcher is built. Strings
+ * are looked up in a set of strings, integers in open addressing tables of
+ * {@code long}s, decimals in a set of {@link BigDecimal}s; booleans and null
+ * are simple flags. An instance of a type no value has is rejected without
+ * being hashed: this matters for arrays and objects, whose hash is computed
+ * over the whole subtree.</p>
+ *
+ * <p>The answers are the same as those of {@link JsonNode#equals(Object)}:
+ * in particular, {@code 1} and {@code 1.0} are different values, as are
+ * {@code 1.0} and {@code 1.00}.</p>
+ */
+final class EnumMatcher
+{
+    private final boolean hasNull;
+    private final boolean hasTrue;
+    private final boolean hasFalse;
+    private final Set<String> strings;
+    private final LongSet ints;
+    private final LongSet longs;
+    private final Set<BigDecimal> decimals;
+    private final Set<JsonNode> arrays;
+    private final Set<JsonNode> objects;
+    /**
+     * Values of all other node classes
+     */
+    private final Set<JsonNode> others;
+
+    EnumMatcher(final JsonNode enumNode)
+    {
+        final ImmutableSet.Builder<String> stringsBuilder
+            = ImmutableSet.builder();
+        final List<Long> intValues = Lists.newArrayList();
+        final List<Long> longValues = Lists.newArrayList();
+        final ImmutableSet.Builder<BigDecimal> decimalsBuilder
+            = ImmutableSet.builder();
+        final ImmutableSet.Builder<JsonNode> arraysBuilder
+            = ImmutableSet.builder();
+        final ImmutableSet.Builder<JsonNode> objectsBuilder
+            = ImmutableSet.builder();
+        final ImmutableSet.Builder<JsonNode> othersBuilder
+            = ImmutableSet.builder();
+
+        boolean foundNull = false;
+        boolean foundTrue = false;
+        boolean foundFalse = false;
+        Class<?> c;
+
+        for (final JsonNode value: enumNode) {
+            c = value.getClass();
+            if (c == NullNode.class)
+                foundNull = true;
+            else if (value == BooleanNode.TRUE)
+                foundTrue = true;
+            else if (value == BooleanNode.FALSE)
+                foundFalse = true;
+            else if (c == TextNode.class)
+                stringsBuilder.add(value.textValue());
+            else if (c == IntNode.class)
+                intValues.add(value.longValue());
+            else if (c == LongNode.class)
+                longValues.add(value.longValue());
+            else if (c == DecimalNode.class)
+                decimalsBuilder.add(value.decimalValue());
+            else if (c == ArrayNode.class)
+                arraysBuilder.add(value);
+            else if (c == ObjectNode.class)
+                objectsBuilder.add(value);
+            else
+                othersBuilder.add(value);
+        }
+
+        hasNull = foundNull;
+        hasTrue = foundTrue;
+        hasFalse = foundFalse;
+        strings = stringsBuilder.build();
+        ints = new LongSet(Longs.toArray(intValues));
+        longs = new LongSet(Longs.toArray(longValues));
+        decimals = decimalsBuilder.build();
+        arrays = arraysBuilder.build();
+        objects = objectsBuilder.build();
+        others = othersBuilder.build();
+    }
+
+    /**
+     * Tell whether an instance is one of the enum values
+     *
+     * @param instance the instance
+     * @return true if it is
+     */
+    boolean contains(final JsonNode instance)
+    {
+        final Class<?> c = instance.getClass();
+
+        if (c == TextNode.class)
+            return strings.contains(instance.textValue());
+        if (c == IntNode.class)
+            return ints.contains(instance.longValue());
+        if (c == LongNode.class)
+            return longs.contains(instance.longValue());
+        if (c == DecimalNode.class)
+            return decimals.contains(instance.decimalValue());
+        if (c == NullNode.class)
+            return hasNull;
+        if (instance == BooleanNode.TRUE)
+            return hasTrue;
+        if (instance == BooleanNode.FALSE)
+            return hasFalse;
+        if (c == ArrayNode.class)
+            return !arrays.isEmpty() && arrays.contains(instance);
+        if (c == ObjectNode.class)
+            return !objects.isEmpty() && objects.contains(instance);
+
+        return !others.isEmpty() && others.contains(instance);
+    }
+
+    /**
+     * An immutable set of {@code long}s, using open addressing
+     */
+    private static final class LongSet
+    {
+        private final long[] table;
+        /**
+         * Whether 0 is in the set: 0 marks empty slots of the table
+         */
+        private final boolean hasZero;
+        private final int mask;
+
+        private LongSet(final long[] values)
+        {
+            mask = Integer.highestOneBit(2 * values.length + 1) * 2 - 1;
+            table = new long[mask + 1];
+
+            boolean zero = false;
+            int slot;
+
+            for (final long value: values) {
+                if (value == 0L) {
+                    zero = true;
+                    continue;
+                }
+                slot = slot(value);
+                while (table[slot] != 0L && table[slot] != value)
+                    slot = (slot + 1) & mask;
+                table[slot] = value;
+            }
+
+            hasZero = zero;
+        }
+
+        private boolean contains(final long value)
+        {
+            if (value == 0L)
+                return hasZero;
+
+            int slot = slot(value);
+            long found;
+
+            while ((found = table[slot]) != 0L) {
+                if (found == value)
+                    return true;
+                slot = (slot + 1) & mask;
+            }
+
+            return false;
+        }
+
+        private int slot(final long value)
+        {
+            long h = value * 0x9e3779b97f4a7c15L;
+            h ^= h >>> 32;
+            return (int) h & mask;
+        }
+    }
+}
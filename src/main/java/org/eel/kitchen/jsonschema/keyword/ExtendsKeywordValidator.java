@@ -71,11 +71,17 @@ public final class ExtendsKeywordValidator
         for (final JsonNode schema: schemas) {
             validator = context.newValidator(schema);
             validator.validate(context, report, instance);
-            if (report.hasFatalError())
+            if (report.shouldStop())
                 return;
         }
     }
 
+    @Override
+    public int getCost()
+    {
+        return SUBSCHEMA_COST;
+    }
+
     @Override
     public String toString()
     {
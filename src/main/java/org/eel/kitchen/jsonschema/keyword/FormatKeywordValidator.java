@@ -19,11 +19,15 @@
 package org.eel.kitchen.jsonschema.keyword;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import org.eel.kitchen.jsonschema.format.FormatBundle;
+import org.eel.kitchen.jsonschema.format.FormatCache;
 import org.eel.kitchen.jsonschema.format.FormatSpecifier;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
 import org.eel.kitchen.jsonschema.util.NodeType;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
+import java.util.Map;
+
 /**
  * Validator for the {@code format} keyword
  *
@@ -47,22 +51,47 @@ public final class FormatKeywordValidator
     // The format attribute
     private final String fmt;
 
+    // The format specifier, null if the format is not supported
+    private final FormatSpecifier specifier;
+
     public FormatKeywordValidator(final JsonNode schema)
+    {
+        this(schema, FormatBundle.defaultBundle().getSpecifiers());
+    }
+
+    /**
+     * Constructor binding the format specifier
+     *
+     * @param schema the schema
+     * @param formats the format specifiers, by format name
+     */
+    public FormatKeywordValidator(final JsonNode schema,
+        final Map<String, FormatSpecifier> formats)
     {
         super("format", NodeType.values());
         fmt = schema.get(keyword).textValue();
+        specifier = formats.get(fmt);
     }
 
     @Override
     protected void validate(final ValidationContext context,
         final ValidationReport report, final JsonNode instance)
     {
-        final FormatSpecifier specifier = context.getFormat(fmt);
-
         if (specifier == null)
             return;
 
-        specifier.validate(fmt, context, report, instance);
+        final FormatCache cache = context.getFormatCache();
+
+        if (cache == null)
+            specifier.validate(fmt, context, report, instance);
+        else
+            cache.validate(fmt, specifier, context, report, instance);
+    }
+
+    @Override
+    public int getCost()
+    {
+        return PARSING_COST;
     }
 
     @Override
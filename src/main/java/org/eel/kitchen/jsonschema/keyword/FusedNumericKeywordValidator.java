@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import org.eel.kitchen.jsonschema.report.Domain;
+import org.eel.kitchen.jsonschema.report.Message;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.NodeType;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Fused validator for the {@code minimum}, {@code maximum} and {@code
+ * divisibleBy} keywords
+ *
+ * <p>{@link KeywordFactory} uses this validator instead of {@link
+ * MinimumKeywordValidator}, {@link MaximumKeywordValidator} and {@link
+ * DivisibleByKeywordValidator} when these are the registered validators for
+ * their keywords. The instance type is then checked only once for all three
+ * keywords, and keyword values are precomputed as {@link NumericBound}s, so
+ * that checking {@code minimum} and {@code maximum} does not allocate in the
+ * common case. Neither does checking {@code divisibleBy} for integer
+ * instances, whatever the divisor; other instances still go through {@link
+ * BigDecimal#remainder(BigDecimal)}. Messages are the same as those of the
+ * separate validators.</p>
+ */
+final class FusedNumericKeywordValidator
+    extends KeywordValidator
+{
+    private final JsonNode minimum;
+    private final NumericBound minimumBound;
+    private final boolean exclusiveMinimum;
+
+    private final JsonNode maximum;
+    private final NumericBound maximumBound;
+    private final boolean exclusiveMaximum;
+
+    private final JsonNode divisibleBy;
+    private final NumericBound divisor;
+
+    /**
+     * Constructor
+     *
+     * @param schema the schema
+     * @param keywords the keywords to validate, among {@code minimum}, {@code
+     * maximum} and {@code divisibleBy}
+     */
+    FusedNumericKeywordValidator(final JsonNode schema,
+        final Set<String> keywords)
+    {
+        super("numeric", NodeType.INTEGER, NodeType.NUMBER);
+
+        minimum = keywords.contains("minimum") ? schema.get("minimum") : null;
+        minimumBound = minimum == null ? null : new NumericBound(minimum);
+        exclusiveMinimum = schema.path("exclusiveMinimum").asBoolean(false);
+
+        maximum = keywords.contains("maximum") ? schema.get("maximum") : null;
+        maximumBound = maximum == null ? null : new NumericBound(maximum);
+        exclusiveMaximum = schema.path("exclusiveMaximum").asBoolean(false);
+
+        divisibleBy = keywords.contains("divisibleBy")
+            ? schema.get("divisibleBy") : null;
+        divisor = divisibleBy == null ? null : new NumericBound(divisibleBy);
+    }
+
+    @Override
+    protected void validate(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance)
+    {
+        if (minimum != null) {
+            validateMinimum(report, instance);
+            if (report.shouldStop())
+                return;
+        }
+
+        if (maximum != null) {
+            validateMaximum(report, instance);
+            if (report.shouldStop())
+                return;
+        }
+
+        if (divisibleBy != null)
+            validateDivisibleBy(report, instance);
+    }
+
+    private void validateMinimum(final ValidationReport report,
+        final JsonNode instance)
+    {
+        final int cmp = minimumBound.compare(instance);
+
+        if (cmp > 0)
+            return;
+
+        if ((cmp != 0 || exclusiveMinimum) && report.failFast())
+            return;
+
+        final Message.Builder msg = newMsg("minimum")
+            .addInfo("minimum", minimum).addInfo("found", instance);
+
+        if (cmp < 0) {
+            msg.setMessage("number is lower than the required minimum");
+            report.addMessage(msg.build());
+            return;
+        }
+
+        if (!exclusiveMinimum)
+            return;
+
+        msg.addInfo("exclusiveMinimum", nodeFactory.booleanNode(true))
+            .setMessage("number is not strictly greater than the required " +
+                "minimum");
+        report.addMessage(msg.build());
+    }
+
+    private void validateMaximum(final ValidationReport report,
+        final JsonNode instance)
+    {
+        final int cmp = maximumBound.compare(instance);
+
+        if (cmp < 0)
+            return;
+
+        if ((cmp != 0 || exclusiveMaximum) && report.failFast())
+            return;
+
+        final Message.Builder msg = newMsg("maximum")
+            .addInfo("maximum", maximum).addInfo("found", instance);
+
+        if (cmp > 0) {
+            msg.setMessage("number is greater than the required maximum");
+            report.addMessage(msg.build());
+            return;
+        }
+
+        if (!exclusiveMaximum)
+            return;
+
+        msg.setMessage("number is not strictly lower than the required maximum")
+            .addInfo("exclusiveMaximum", nodeFactory.booleanNode(true));
+        report.addMessage(msg.build());
+    }
+
+    private void validateDivisibleBy(final ValidationReport report,
+        final JsonNode instance)
+    {
+        if (isMultiple(instance) || report.failFast())
+            return;
+
+        final Message.Builder msg = newMsg("divisibleBy")
+            .setMessage("number is not a multiple of divisibleBy")
+            .addInfo("value", instance).addInfo("divisor", divisibleBy);
+        report.addMessage(msg.build());
+    }
+
+    private boolean isMultiple(final JsonNode instance)
+    {
+        final Class<?> c = instance.getClass();
+
+        if (c == IntNode.class || c == LongNode.class) {
+            final long multiple = divisor.integerMultiple();
+            if (multiple != 0L)
+                return instance.longValue() % multiple == 0L;
+        }
+
+        /*
+         * We cannot use equality! As far as BigDecimal goes, "0" and "0.0" are
+         * NOT equal. But .compareTo() returns the correct result.
+         */
+        return instance.decimalValue().remainder(divisor.decimalValue())
+            .compareTo(BigDecimal.ZERO) == 0;
+    }
+
+    private static Message.Builder newMsg(final String keyword)
+    {
+        return Domain.VALIDATION.newMessage().setKeyword(keyword);
+    }
+
+    @Override
+    public int getCost()
+    {
+        return CONSTANT_COST;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        if (minimum != null)
+            sb.append("minimum: ").append(minimum).append("; ");
+        if (maximum != null)
+            sb.append("maximum: ").append(maximum).append("; ");
+        if (divisibleBy != null)
+            sb.append("divisibleBy: ").append(divisibleBy).append("; ");
+
+        return sb.substring(0, sb.length() - 2);
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import org.eel.kitchen.jsonschema.report.Domain;
+import org.eel.kitchen.jsonschema.report.Message;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.EcmaRegexSet;
+import org.eel.kitchen.jsonschema.util.JacksonUtils;
+import org.eel.kitchen.jsonschema.util.NodeType;
+import org.eel.kitchen.jsonschema.util.RegexBudgetExceededException;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Fused validator for the {@code properties}, {@code additionalProperties}
+ * and {@code dependencies} keywords
+ *
+ * <p>{@link KeywordFactory} uses this validator instead of {@link
+ * PropertiesKeywordValidator}, {@link AdditionalPropertiesKeywordValidator}
+ * and {@link DependenciesKeywordValidator} when these are the registered
+ * validators for their keywords.</p>
+ *
+ * <p>All property names mentioned by these keywords are compiled into a
+ * {@link PropertyIndex} when the schema is built. Validating an object
+ * instance is then a single pass over its member names, which records the
+ * members present in a bitset; required properties and property dependencies
+ * are checked against this bitset. Collections are only built when
+ * validation fails. Messages are the same as those of the separate
+ * validators.</p>
+ */
+final class FusedObjectKeywordValidator
+    extends KeywordValidator
+{
+    private final PropertyIndex index;
+
+    /**
+     * Required properties, {@code null} if none
+     */
+    private final long[] required;
+    private final SortedSet<String> requiredNames;
+
+    /**
+     * True if {@code additionalProperties} is not checked or not {@code false}
+     */
+    private final boolean additionalOK;
+    private final EcmaRegexSet regexes;
+
+    /**
+     * Property dependencies: triggering properties, in natural order, and
+     * their dependencies
+     */
+    private final int[] simpleTriggers;
+    private final List<long[]> simpleDeps;
+    private final List<SortedSet<String>> simpleNames;
+
+    /**
+     * Schema dependencies: triggering properties and their schemas
+     */
+    private final int[] schemaTriggers;
+    private final List<JsonNode> schemaDeps;
+
+    /**
+     * Constructor
+     *
+     * @param schema the schema
+     * @param keywords the keywords to validate, among {@code properties},
+     * {@code additionalProperties} and {@code dependencies}
+     */
+    FusedObjectKeywordValidator(final JsonNode schema,
+        final Set<String> keywords)
+    {
+        super("object", NodeType.OBJECT);
+
+        final JsonNode properties = schema.path("properties");
+        final List<String> known = Lists.newArrayList(properties.fieldNames());
+        final SortedSet<String> requiredSet = Sets.newTreeSet();
+
+        if (keywords.contains("properties"))
+            for (final String name: known)
+                if (properties.get(name).path("required").asBoolean(false))
+                    requiredSet.add(name);
+
+        additionalOK = !keywords.contains("additionalProperties")
+            || schema.get("additionalProperties").asBoolean(true);
+
+        final JsonNode patterns = schema.path("patternProperties");
+        regexes = additionalOK || patterns.size() == 0 ? null
+            : EcmaRegexSet.forPatternProperties(patterns);
+
+        final SortedMap<String, SortedSet<String>> simple
+            = Maps.newTreeMap();
+        final Map<String, JsonNode> schemas = Maps.newLinkedHashMap();
+
+        if (keywords.contains("dependencies"))
+            readDependencies(schema.get("dependencies"), simple, schemas);
+
+        final List<String> others = Lists.newArrayList(simple.keySet());
+
+        for (final SortedSet<String> set: simple.values())
+            others.addAll(set);
+        others.addAll(schemas.keySet());
+
+        index = new PropertyIndex(known, others);
+
+        required = requiredSet.isEmpty() ? null : index.bitSetOf(requiredSet);
+        requiredNames = ImmutableSortedSet.copyOf(requiredSet);
+
+        simpleTriggers = new int[simple.size()];
+        final ImmutableList.Builder<long[]> deps = ImmutableList.builder();
+        final ImmutableList.Builder<SortedSet<String>> names
+            = ImmutableList.builder();
+
+        int i = 0;
+
+        for (final Map.Entry<String, SortedSet<String>> entry:
+            simple.entrySet()) {
+            simpleTriggers[i++] = index.indexOf(entry.getKey());
+            deps.add(index.bitSetOf(entry.getValue()));
+            names.add(ImmutableSortedSet.copyOf(entry.getValue()));
+        }
+
+        simpleDeps = deps.build();
+        simpleNames = names.build();
+
+        schemaTriggers = new int[schemas.size()];
+        i = 0;
+
+        for (final String name: schemas.keySet())
+            schemaTriggers[i++] = index.indexOf(name);
+
+        schemaDeps = ImmutableList.copyOf(schemas.values());
+    }
+
+    /*
+     * Remember that we went through syntax validation first: an object is a
+     * schema dependency, a string or an array of strings are property
+     * dependencies.
+     */
+    private static void readDependencies(final JsonNode node,
+        final Map<String, SortedSet<String>> simple,
+        final Map<String, JsonNode> schemas)
+    {
+        final Map<String, JsonNode> fields = JacksonUtils.nodeToMap(node);
+
+        String key;
+        JsonNode value;
+        SortedSet<String> set;
+
+        for (final Map.Entry<String, JsonNode> entry: fields.entrySet()) {
+            key = entry.getKey();
+            value = entry.getValue();
+            if (value.isObject()) {
+                schemas.put(key, value);
+                continue;
+            }
+            set = Sets.newTreeSet();
+            if (value.isTextual())
+                set.add(value.textValue());
+            else
+                for (final JsonNode element: value)
+                    set.add(element.textValue());
+            simple.put(key, set);
+        }
+    }
+
+    @Override
+    protected void validate(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance)
+    {
+        final long[] present = index.newBitSet();
+        final Iterator<String> iterator = instance.fieldNames();
+
+        List<String> unwanted = null;
+        RegexBudgetExceededException exceeded = null;
+        String name;
+        int i;
+
+        while (iterator.hasNext()) {
+            name = iterator.next();
+            i = index.indexOf(name);
+            if (i >= 0)
+                PropertyIndex.set(present, i);
+            if (additionalOK || index.isKnown(i) || exceeded != null)
+                continue;
+            if (regexes != null)
+                try {
+                    if (regexes.matchesAny(name, context.getRegexBudget()))
+                        continue;
+                } catch (RegexBudgetExceededException e) {
+                    if (report.failFast())
+                        return;
+                    exceeded = e;
+                    continue;
+                }
+            if (report.failFast())
+                return;
+            if (unwanted == null)
+                unwanted = Lists.newArrayList();
+            unwanted.add(name);
+        }
+
+        validateRequired(report, present);
+        if (report.shouldStop())
+            return;
+
+        if (exceeded != null) {
+            final Message.Builder msg = newMsg("additionalProperties")
+                .addInfo("regex", exceeded.getRegex())
+                .addInfo("budget", exceeded.getBudget())
+                .setMessage("regex matching exceeded its budget");
+            report.addMessage(msg.build());
+        } else if (unwanted != null) {
+            final Message.Builder msg = newMsg("additionalProperties")
+                .addInfo("unwanted", Ordering.natural().sortedCopy(unwanted))
+                .setMessage("additional properties not permitted");
+            report.addMessage(msg.build());
+        }
+
+        if (report.shouldStop())
+            return;
+
+        validateDependencies(context, report, instance, present);
+    }
+
+    private void validateRequired(final ValidationReport report,
+        final long[] present)
+    {
+        if (required == null || PropertyIndex.containsAll(present, required))
+            return;
+
+        if (report.failFast())
+            return;
+
+        final Message.Builder msg = newMsg("properties")
+            .addInfo("required", requiredNames)
+            .addInfo("missing", index.missing(required, present))
+            .setMessage("required property(ies) not found");
+        report.addMessage(msg.build());
+    }
+
+    private void validateDependencies(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance,
+        final long[] present)
+    {
+        long[] deps;
+        Message.Builder msg;
+
+        for (int i = 0; i < simpleTriggers.length; i++) {
+            if (!PropertyIndex.isSet(present, simpleTriggers[i]))
+                continue;
+            deps = simpleDeps.get(i);
+            if (PropertyIndex.containsAll(present, deps))
+                continue;
+            if (report.failFast())
+                return;
+            msg = newMsg("dependencies")
+                .setMessage("missing property dependencies")
+                .addInfo("property", index.name(simpleTriggers[i]))
+                .addInfo("missing", index.missing(deps, present))
+                .addInfo("expected", simpleNames.get(i));
+            report.addMessage(msg.build());
+        }
+
+        for (int i = 0; i < schemaTriggers.length; i++) {
+            if (!PropertyIndex.isSet(present, schemaTriggers[i]))
+                continue;
+            context.newValidator(schemaDeps.get(i))
+                .validate(context, report, instance);
+            if (report.shouldStop())
+                return;
+        }
+    }
+
+    private static Message.Builder newMsg(final String keyword)
+    {
+        return Domain.VALIDATION.newMessage().setKeyword(keyword);
+    }
+
+    @Override
+    public boolean isShapeOnly()
+    {
+        return schemaDeps.isEmpty();
+    }
+
+    @Override
+    public int getCost()
+    {
+        if (!schemaDeps.isEmpty())
+            return SUBSCHEMA_COST;
+        return regexes == null ? LINEAR_COST : PARSING_COST;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "properties: " + requiredNames.size() + " required; "
+            + "additional properties " + (additionalOK ? "allowed" : "checked")
+            + "; " + (simpleTriggers.length + schemaTriggers.length)
+            + " dependencies";
+    }
+}
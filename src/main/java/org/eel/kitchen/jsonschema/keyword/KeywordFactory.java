@@ -22,6 +22,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.eel.kitchen.jsonschema.bundle.KeywordBundle;
+import org.eel.kitchen.jsonschema.format.FormatBundle;
+import org.eel.kitchen.jsonschema.format.FormatSpecifier;
 import org.eel.kitchen.jsonschema.report.Domain;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
@@ -56,13 +58,58 @@ public final class KeywordFactory
     private final Map<String, Class<? extends KeywordValidator>> validators;
 
     /**
-     * The only constructor
+     * The format specifiers, passed to validators which need them
+     */
+    private final Map<String, FormatSpecifier> formats;
+
+    /**
+     * The numeric keywords handled by {@link FusedNumericKeywordValidator}
+     *
+     * <p>A keyword is only part of this set if its registered validator is
+     * the builtin one; custom validators are always used as is. The same goes
+     * for {@link #objectKeywords}.</p>
+     */
+    private final Set<String> numericKeywords;
+
+    /**
+     * The object keywords handled by {@link FusedObjectKeywordValidator}
+     */
+    private final Set<String> objectKeywords;
+
+    /**
+     * Constructor with the default format bundle
      *
      * @param bundle The keyword bundle to use
      */
     public KeywordFactory(final KeywordBundle bundle)
+    {
+        this(bundle, FormatBundle.defaultBundle());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param bundle The keyword bundle to use
+     * @param formatBundle the format bundle to use
+     */
+    public KeywordFactory(final KeywordBundle bundle,
+        final FormatBundle formatBundle)
     {
         validators = ImmutableMap.copyOf(bundle.getValidators());
+        formats = formatBundle.getSpecifiers();
+        numericKeywords = fusedKeywords(validators,
+            ImmutableMap.<String, Class<? extends KeywordValidator>>of(
+                "minimum", MinimumKeywordValidator.class,
+                "maximum", MaximumKeywordValidator.class,
+                "divisibleBy", DivisibleByKeywordValidator.class
+            ));
+        objectKeywords = fusedKeywords(validators,
+            ImmutableMap.<String, Class<? extends KeywordValidator>>of(
+                "properties", PropertiesKeywordValidator.class,
+                "additionalProperties",
+                AdditionalPropertiesKeywordValidator.class,
+                "dependencies", DependenciesKeywordValidator.class
+            ));
     }
 
     /**
@@ -79,18 +126,56 @@ public final class KeywordFactory
 
         set.retainAll(validators.keySet());
 
+        Set<String> fused;
+
+        fused = Sets.intersection(set, numericKeywords).immutableCopy();
+        if (!fused.isEmpty()) {
+            set.removeAll(fused);
+            ret.add(new FusedNumericKeywordValidator(schema, fused));
+        }
+
+        fused = Sets.intersection(set, objectKeywords).immutableCopy();
+        if (!fused.isEmpty()) {
+            set.removeAll(fused);
+            ret.add(new FusedObjectKeywordValidator(schema, fused));
+        }
+
         for (final String keyword: set)
-            ret.add(buildValidator(validators.get(keyword), schema));
+            ret.add(buildValidator(validators.get(keyword), schema, formats));
 
         return ImmutableSet.copyOf(ret);
     }
 
+    /**
+     * Compute the set of keywords which can be handled by a fused validator
+     *
+     * @param validators the registered keyword validators
+     * @param builtins the builtin validators replaced by the fused validator
+     * @return the set of fused keywords
+     */
+    private static Set<String> fusedKeywords(
+        final Map<String, Class<? extends KeywordValidator>> validators,
+        final Map<String, Class<? extends KeywordValidator>> builtins)
+    {
+        final ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+
+        for (final Map.Entry<String, Class<? extends KeywordValidator>> entry:
+            builtins.entrySet())
+            if (entry.getValue() == validators.get(entry.getKey()))
+                builder.add(entry.getKey());
+
+        return builder.build();
+    }
+
     /**
      * Build one validator
      *
      * <p>This is done by reflection. Remember that the contract is to have a
-     * constructor which takes a {@link JsonNode} as an argument.
-     * </p>
+     * constructor which takes a {@link JsonNode} as an argument. Validators
+     * which need format specifiers (such as {@link FormatKeywordValidator})
+     * may instead have a constructor which takes a {@link JsonNode} and a
+     * {@link Map} of format specifiers as arguments; this constructor is
+     * preferred if it exists.</p>
      *
      * <p>If instantiation fails for whatever reason, an "invalid validator" is
      * returned which always fails.</p>
@@ -99,21 +184,30 @@ public final class KeywordFactory
      *
      * @param c the keyword validator class
      * @param schema the schema
+     * @param formats the format specifiers
      * @return the instantiated keyword validator
      */
     private static KeywordValidator buildValidator(
-        final Class<? extends KeywordValidator> c, final JsonNode schema)
+        final Class<? extends KeywordValidator> c, final JsonNode schema,
+        final Map<String, FormatSpecifier> formats)
     {
-        final Constructor<? extends KeywordValidator> constructor;
+        Constructor<? extends KeywordValidator> constructor;
+        Object[] args;
 
         try {
-            constructor = c.getConstructor(JsonNode.class);
-        } catch (NoSuchMethodException e) {
-            return invalidValidator(c, e);
+            constructor = c.getConstructor(JsonNode.class, Map.class);
+            args = new Object[] { schema, formats };
+        } catch (NoSuchMethodException ignored) {
+            try {
+                constructor = c.getConstructor(JsonNode.class);
+                args = new Object[] { schema };
+            } catch (NoSuchMethodException e) {
+                return invalidValidator(c, e);
+            }
         }
 
         try {
-            return constructor.newInstance(schema);
+            return constructor.newInstance(args);
         } catch (InstantiationException e) {
             return invalidValidator(c, e);
         } catch (IllegalAccessException e) {
@@ -58,6 +58,34 @@ public abstract class KeywordValidator
 {
     protected static final JsonNodeFactory nodeFactory
         = JsonNodeFactory.instance;
+    /**
+     * Cost of a keyword which runs in constant time, or nearly so
+     *
+     * @see #getCost()
+     */
+    protected static final int CONSTANT_COST = 1;
+
+    /**
+     * Cost of a keyword which runs in linear time in the size of the instance
+     *
+     * @see #getCost()
+     */
+    protected static final int LINEAR_COST = 10;
+
+    /**
+     * Cost of a keyword which matches regexes or parses strings
+     *
+     * @see #getCost()
+     */
+    protected static final int PARSING_COST = 100;
+
+    /**
+     * Cost of a keyword which validates the instance against subschemas
+     *
+     * @see #getCost()
+     */
+    protected static final int SUBSCHEMA_COST = 1000;
+
     /**
      * The keyword
      */
@@ -98,6 +126,69 @@ public abstract class KeywordValidator
             validate(context, report, instance);
     }
 
+    /**
+     * Validate an instance whose type is known to be validated by this keyword
+     *
+     * <p>Unlike {@link #validateInstance(ValidationContext, ValidationReport,
+     * JsonNode)}, this does not check the instance type: callers which
+     * dispatch on the instance type themselves (using {@link
+     * #validatesType(NodeType)}) should use this method instead.</p>
+     *
+     * @param context the context
+     * @param report the validation report
+     * @param instance the instance to validate
+     */
+    public final void validateTypedInstance(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance)
+    {
+        validate(context, report, instance);
+    }
+
+    /**
+     * Tell whether this keyword validates instances of a given type
+     *
+     * @param type the instance type
+     * @return true if it does
+     */
+    public final boolean validatesType(final NodeType type)
+    {
+        return instanceTypes.contains(type);
+    }
+
+    /**
+     * Tell whether this keyword only needs the shape of a container instance
+     *
+     * <p>The shape of an array instance is its number of elements, the shape
+     * of an object instance is the set of its member names. When streaming an
+     * instance, container instances are only materialized if a keyword applying
+     * to them needs more than that.</p>
+     *
+     * <p>The default implementation returns {@code false}.</p>
+     *
+     * @return true if the shape of a container is enough for this keyword
+     */
+    public boolean isShapeOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Return the relative cost of validating an instance with this keyword
+     *
+     * <p>Keywords are run in increasing order of cost, so that cheap
+     * keywords can fail an instance before expensive ones are run. The value
+     * should be one of {@link #CONSTANT_COST}, {@link #LINEAR_COST}, {@link
+     * #PARSING_COST} or {@link #SUBSCHEMA_COST}.</p>
+     *
+     * <p>The default implementation returns {@link #LINEAR_COST}.</p>
+     *
+     * @return the cost
+     */
+    public int getCost()
+    {
+        return LINEAR_COST;
+    }
+
     /**
      * Method which all keyword validators must implement
      *
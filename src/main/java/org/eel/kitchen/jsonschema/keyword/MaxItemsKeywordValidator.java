@@ -41,9 +41,18 @@ public final class MaxItemsKeywordValidator
         if (instance.size() <= intValue)
             return;
 
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg().addInfo(keyword, intValue)
             .addInfo("found", instance.size())
             .setMessage("too many elements in array");
         report.addMessage(msg.build());
     }
+
+    @Override
+    public boolean isShapeOnly()
+    {
+        return true;
+    }
 }
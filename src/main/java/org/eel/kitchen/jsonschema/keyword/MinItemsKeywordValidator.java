@@ -41,9 +41,18 @@ public final class MinItemsKeywordValidator
         if (instance.size() >= intValue)
             return;
 
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg().addInfo(keyword, intValue)
             .addInfo("found", instance.size())
             .setMessage("not enough elements in array");
         report.addMessage(msg.build());
     }
+
+    @Override
+    public boolean isShapeOnly()
+    {
+        return true;
+    }
 }
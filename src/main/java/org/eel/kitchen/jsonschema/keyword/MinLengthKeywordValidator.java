@@ -42,6 +42,9 @@ public final class MinLengthKeywordValidator
         if (len >= intValue)
             return;
 
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg().addInfo(keyword, intValue)
             .addInfo("found", len).setMessage("string is too short");
         report.addMessage(msg.build());
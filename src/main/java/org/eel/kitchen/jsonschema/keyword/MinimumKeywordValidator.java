@@ -51,6 +51,9 @@ public final class MinimumKeywordValidator
         if (instanceValue > longValue)
             return;
 
+        if ((instanceValue != longValue || exclusive) && report.failFast())
+            return;
+
         final Message.Builder msg = newMsg().addInfo(keyword, number)
             .addInfo("found", instance);
 
@@ -81,6 +84,9 @@ public final class MinimumKeywordValidator
         if (cmp > 0)
             return;
 
+        if ((cmp != 0 || exclusive) && report.failFast())
+            return;
+
         final Message.Builder msg = newMsg().addInfo(keyword, number)
             .addInfo("found", instance);
 
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A numeric keyword value, precomputed for fast comparisons
+ *
+ * <p>The value is kept as a {@link BigDecimal}, as a {@code long} if it is an
+ * integer which fits, and as the nearest {@code double}. Comparisons give the
+ * same results as comparing {@link JsonNode#decimalValue()} of the instance
+ * with the {@link BigDecimal} value, but only allocate when there is no other
+ * choice:</p>
+ *
+ * <ul>
+ *     <li>{@code long} instances are compared as {@code long}s if the value
+ *     is a {@code long} too;</li>
+ *     <li>otherwise, {@code long} instances which are exact {@code double}s,
+ *     and {@code double} instances, are compared as {@code double}s, unless
+ *     they are equal to the nearest {@code double} of the value (in which
+ *     case the value may still be different);</li>
+ *     <li>{@link DecimalNode} instances are compared as {@link BigDecimal}s,
+ *     which does not allocate either.</li>
+ * </ul>
+ *
+ * <p>For {@code double} instances, this relies on {@link
+ * DoubleNode#decimalValue()} being {@link BigDecimal#valueOf(double)}, which
+ * converts back to the same {@code double}.</p>
+ *
+ * <p>For {@code divisibleBy}, the smallest positive integer multiple of the
+ * value is precomputed too, so that {@code long} instances can be checked
+ * with a {@code long} remainder whatever the scale of the value.</p>
+ */
+final class NumericBound
+{
+    /**
+     * Largest magnitude of {@code long}s which are all exact {@code double}s
+     */
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    private final BigDecimal decimal;
+    private final boolean isLong;
+    private final long longValue;
+    private final double doubleValue;
+    private final long integerMultiple;
+
+    NumericBound(final JsonNode node)
+    {
+        decimal = node.decimalValue();
+        isLong = node.isIntegralNumber() && node.canConvertToLong();
+        longValue = node.longValue();
+        doubleValue = decimal.doubleValue();
+        integerMultiple = computeIntegerMultiple(decimal);
+    }
+
+    boolean isLong()
+    {
+        return isLong;
+    }
+
+    long longValue()
+    {
+        return longValue;
+    }
+
+    BigDecimal decimalValue()
+    {
+        return decimal;
+    }
+
+    /**
+     * Return the smallest positive integer multiple of this value
+     *
+     * <p>An integer is a multiple of this value if and only if it is a
+     * multiple of the returned value.</p>
+     *
+     * @return the multiple, or 0 if it does not fit in a {@code long} (or if
+     * this value is zero)
+     */
+    long integerMultiple()
+    {
+        return integerMultiple;
+    }
+
+    /**
+     * Compare a numeric instance with this value
+     *
+     * @param instance the instance
+     * @return a negative integer, zero or a positive integer if the instance
+     * is lower than, equal to or greater than this value
+     */
+    int compare(final JsonNode instance)
+    {
+        final Class<?> c = instance.getClass();
+
+        if (c == IntNode.class || c == LongNode.class) {
+            final long l = instance.longValue();
+            if (isLong)
+                return l < longValue ? -1 : l == longValue ? 0 : 1;
+            if (l >= -MAX_EXACT_DOUBLE && l <= MAX_EXACT_DOUBLE
+                && (double) l != doubleValue)
+                return (double) l < doubleValue ? -1 : 1;
+            return BigDecimal.valueOf(l).compareTo(decimal);
+        }
+
+        if (c == DoubleNode.class) {
+            final double d = instance.doubleValue();
+            if (d != doubleValue && !Double.isNaN(d) && !Double.isInfinite(d))
+                return d < doubleValue ? -1 : 1;
+        }
+
+        return instance.decimalValue().compareTo(decimal);
+    }
+
+    /*
+     * Once trailing zeroes are stripped, a value with a positive scale s and
+     * an unscaled value u is p / q in lowest terms, with p = u / gcd(u, 10^s).
+     * Since p and q are coprime, an integer is a multiple of p / q if and only
+     * if it is a multiple of p.
+     */
+    private static long computeIntegerMultiple(final BigDecimal value)
+    {
+        final BigDecimal stripped = value.stripTrailingZeros().abs();
+        final int scale = stripped.scale();
+        final BigInteger multiple;
+
+        if (scale <= 0)
+            multiple = stripped.toBigInteger();
+        else {
+            final BigInteger unscaled = stripped.unscaledValue();
+            multiple = unscaled.divide(unscaled.gcd(BigInteger.TEN.pow(scale)));
+        }
+
+        return multiple.bitLength() < 64 ? multiple.longValue() : 0L;
+    }
+}
@@ -133,6 +133,12 @@ public abstract class NumericKeywordValidator
             && node.canConvertToLong();
     }
 
+    @Override
+    public int getCost()
+    {
+        return CONSTANT_COST;
+    }
+
     @Override
     public String toString()
     {
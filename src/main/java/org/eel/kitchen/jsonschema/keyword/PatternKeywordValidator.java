@@ -20,34 +20,56 @@ package org.eel.kitchen.jsonschema.keyword;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.EcmaRegex;
 import org.eel.kitchen.jsonschema.util.NodeType;
-import org.eel.kitchen.jsonschema.util.RhinoHelper;
+import org.eel.kitchen.jsonschema.util.RegexBudgetExceededException;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
 /**
  * Validator for the {@code pattern} keyword
  *
  * <p>Regexes must conform to ECMA 262, so, again, this makes {@link
- * java.util.regex} unusable.</p>
+ * java.util.regex} unusable as is. The regex is compiled once, when the
+ * validator is built.</p>
  *
- * @see RhinoHelper
+ * <p>If a regex budget is set (see {@link
+ * ValidationContext#getRegexBudget()}) and matching exceeds it, validation
+ * fails.</p>
+ *
+ * @see EcmaRegex
  */
 public final class PatternKeywordValidator
     extends KeywordValidator
 {
     private final String regex;
+    private final EcmaRegex compiled;
 
     public PatternKeywordValidator(final JsonNode schema)
     {
         super("pattern", NodeType.STRING);
         regex = schema.get(keyword).textValue();
+        compiled = EcmaRegex.compile(regex);
     }
 
     @Override
     public void validate(final ValidationContext context,
         final ValidationReport report, final JsonNode instance)
     {
-        if (RhinoHelper.regMatch(regex, instance.textValue()))
+        try {
+            if (compiled.matches(instance.textValue(),
+                context.getRegexBudget()))
+                return;
+        } catch (RegexBudgetExceededException e) {
+            if (report.failFast())
+                return;
+            final Message.Builder msg = newMsg().addInfo("regex", regex)
+                .addInfo("budget", e.getBudget())
+                .setMessage("regex matching exceeded its budget");
+            report.addMessage(msg.build());
+            return;
+        }
+
+        if (report.failFast())
             return;
 
         final Message.Builder msg = newMsg().addInfo("regex", regex)
@@ -56,6 +78,12 @@ public final class PatternKeywordValidator
         report.addMessage(msg.build());
     }
 
+    @Override
+    public int getCost()
+    {
+        return PARSING_COST;
+    }
+
     @Override
     public String toString()
     {
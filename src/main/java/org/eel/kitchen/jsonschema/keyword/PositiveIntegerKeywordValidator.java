@@ -45,6 +45,12 @@ public abstract class PositiveIntegerKeywordValidator
         intValue = schema.get(keyword).intValue();
     }
 
+    @Override
+    public int getCost()
+    {
+        return CONSTANT_COST;
+    }
+
     @Override
     public final String toString()
     {
@@ -73,12 +73,21 @@ public final class PropertiesKeywordValidator
         final Set<String> missing = Sets.newTreeSet(required);
         missing.removeAll(fields);
 
+        if (report.failFast())
+            return;
+
         final Message.Builder msg = newMsg().addInfo("required", requiredSorted)
             .addInfo("missing", missing)
             .setMessage("required property(ies) not found");
         report.addMessage(msg.build());
     }
 
+    @Override
+    public boolean isShapeOnly()
+    {
+        return true;
+    }
+
     @Override
     public String toString()
     {
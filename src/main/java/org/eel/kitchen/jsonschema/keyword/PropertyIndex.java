@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * A compiled index of the property names mentioned in a schema
+ *
+ * <p>Each property name is given an index, and sets of property names are
+ * represented as bitsets ({@code long} arrays) over these indices. Property
+ * names of {@code properties} come first, so that telling whether a name is a
+ * member of {@code properties} is a mere comparison.</p>
+ *
+ * @see FusedObjectKeywordValidator
+ */
+final class PropertyIndex
+{
+    private final Map<String, Integer> indices = Maps.newHashMap();
+    private final String[] names;
+    private final int knownCount;
+
+    /**
+     * Constructor
+     *
+     * @param known the property names of {@code properties}
+     * @param others other property names
+     */
+    PropertyIndex(final Iterable<String> known, final Iterable<String> others)
+    {
+        for (final String name: known)
+            add(name);
+
+        knownCount = indices.size();
+
+        for (final String name: others)
+            add(name);
+
+        names = new String[indices.size()];
+
+        for (final Map.Entry<String, Integer> entry: indices.entrySet())
+            names[entry.getValue()] = entry.getKey();
+    }
+
+    private void add(final String name)
+    {
+        if (!indices.containsKey(name))
+            indices.put(name, indices.size());
+    }
+
+    /**
+     * Return the index of a property name
+     *
+     * @param name the property name
+     * @return the index, or -1 if this name is not known to the schema
+     */
+    int indexOf(final String name)
+    {
+        final Integer ret = indices.get(name);
+        return ret == null ? -1 : ret;
+    }
+
+    /**
+     * Return the property name for an index
+     *
+     * @param index the index
+     * @return the property name
+     */
+    String name(final int index)
+    {
+        return names[index];
+    }
+
+    /**
+     * Tell whether an index is the one of a member of {@code properties}
+     *
+     * @param index the index
+     * @return true if this is the case
+     */
+    boolean isKnown(final int index)
+    {
+        return index >= 0 && index < knownCount;
+    }
+
+    /**
+     * Create a new, empty bitset for this index
+     *
+     * @return the bitset
+     */
+    long[] newBitSet()
+    {
+        return new long[(names.length + 63) >>> 6];
+    }
+
+    /**
+     * Create a bitset for a set of property names
+     *
+     * <p>All names must be part of this index.</p>
+     *
+     * @param set the property names
+     * @return the bitset
+     */
+    long[] bitSetOf(final Iterable<String> set)
+    {
+        final long[] ret = newBitSet();
+
+        for (final String name: set)
+            set(ret, indices.get(name));
+
+        return ret;
+    }
+
+    /**
+     * Return the property names of a bitset which are absent from another
+     *
+     * @param wanted the wanted property names
+     * @param present the present property names
+     * @return the missing property names, in natural order
+     */
+    ImmutableSortedSet<String> missing(final long[] wanted,
+        final long[] present)
+    {
+        final ImmutableSortedSet.Builder<String> builder
+            = ImmutableSortedSet.naturalOrder();
+
+        for (int i = 0; i < names.length; i++)
+            if (isSet(wanted, i) && !isSet(present, i))
+                builder.add(names[i]);
+
+        return builder.build();
+    }
+
+    static void set(final long[] bits, final int index)
+    {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    static boolean isSet(final long[] bits, final int index)
+    {
+        return (bits[index >>> 6] & 1L << index) != 0L;
+    }
+
+    /**
+     * Tell whether a bitset contains all elements of another
+     *
+     * @param bits the bitset
+     * @param subset the other bitset
+     * @return true if this is the case
+     */
+    static boolean containsAll(final long[] bits, final long[] subset)
+    {
+        for (int i = 0; i < bits.length; i++)
+            if ((subset[i] & ~bits[i]) != 0L)
+                return false;
+
+        return true;
+    }
+}
@@ -65,7 +65,7 @@ public final class TypeKeywordValidator
          * not allowed" with an empty type set, we only add the primitive type
          * mismatch message if there was at least one primitive type in the set.
          */
-        if (!typeSet.isEmpty()) {
+        if (!typeSet.isEmpty() && !report.failFast()) {
             final Message.Builder msg = newMsg().addInfo("found", type)
                 .addInfo("allowed", typeSet)
                 .setMessage("instance does not match any allowed primitive " +
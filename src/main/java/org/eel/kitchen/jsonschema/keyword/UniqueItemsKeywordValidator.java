@@ -18,16 +18,28 @@
 package org.eel.kitchen.jsonschema.keyword;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.collect.Sets;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.DuplicateFinder;
 import org.eel.kitchen.jsonschema.util.NodeType;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Validator for the {@code uniqueItems} keyword
+ *
+ * <p>Duplicates are looked for using {@link DuplicateFinder}. If parallel
+ * array validation is enabled and the array is large enough, element keys are
+ * computed in parallel. The report message contains the indices of the first
+ * pair of equal elements.</p>
+ *
+ * <p>When set to {@code true}, this keyword needs the elements themselves, not
+ * only the shape of the array: streamed arrays are therefore materialized.
+ * Structural keys alone would not do, since equal keys must then be confirmed
+ * by comparing the elements; detecting duplicates from keys only would report
+ * false duplicates on key collisions.</p>
  */
 public final class UniqueItemsKeywordValidator
     extends KeywordValidator
@@ -47,15 +59,27 @@ public final class UniqueItemsKeywordValidator
         if (!uniqueItems)
             return;
 
-        final Set<JsonNode> set = Sets.newHashSet();
+        final ExecutorService executor
+            = instance.size() < context.getParallelThreshold() ? null
+            : context.getExecutor();
+        final int[] duplicate
+            = DuplicateFinder.findDuplicate(instance, executor);
+
+        if (duplicate == null || report.failFast())
+            return;
+
+        final JsonNode indices = JsonNodeFactory.instance.arrayNode()
+            .add(duplicate[0]).add(duplicate[1]);
+        final Message.Builder msg = newMsg()
+            .setMessage("duplicate elements in array")
+            .addInfo("duplicates", indices);
+        report.addMessage(msg.build());
+    }
 
-        for (final JsonNode element: instance)
-            if (!set.add(element)) {
-                final Message.Builder msg = newMsg()
-                    .setMessage("duplicate elements in array");
-                report.addMessage(msg.build());
-                return;
-            }
+    @Override
+    public boolean isShapeOnly()
+    {
+        return !uniqueItems;
     }
 
     @Override
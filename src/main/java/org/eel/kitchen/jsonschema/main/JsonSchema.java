@@ -17,14 +17,28 @@
 
 package org.eel.kitchen.jsonschema.main;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
-import org.eel.kitchen.jsonschema.ref.SchemaNode;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.eel.kitchen.jsonschema.util.MappedFileInputStream;
+import org.eel.kitchen.jsonschema.util.ProgressListener;
 import org.eel.kitchen.jsonschema.validator.JsonValidator;
 import org.eel.kitchen.jsonschema.validator.JsonValidatorCache;
+import org.eel.kitchen.jsonschema.validator.StreamingValidator;
 import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
-import java.util.EnumSet;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * The main validation class
@@ -37,52 +51,286 @@ import java.util.EnumSet;
 public final class JsonSchema
 {
     /**
-     * The validator cache
+     * Maximum number of batches for {@link #validateAll(Iterable,
+     * ExecutorService)}
      */
-    private final JsonValidatorCache cache;
+    private static final int MAX_BATCHES
+        = 4 * Runtime.getRuntime().availableProcessors();
 
     /**
-     * The feature set
+     * The factory which created this schema
      */
-    private final EnumSet<ValidationFeature> features;
+    private final JsonSchemaFactory factory;
 
     /**
-     * The schema node
+     * The compiled validator for the schema node
+     *
+     * @see JsonValidatorCache#compile(org.eel.kitchen.jsonschema.ref.SchemaNode)
      */
-    private final SchemaNode schemaNode;
+    private final JsonValidator validator;
 
     /**
      * Constructor, package private
      *
-     * @param cache the validator cache
-     * @param features the feature set
-     * @param schemaNode the schema node
+     * @param factory the factory which created this schema
+     * @param validator the compiled validator
      */
-    JsonSchema(final JsonValidatorCache cache,
-        final EnumSet<ValidationFeature> features, final SchemaNode schemaNode)
+    JsonSchema(final JsonSchemaFactory factory, final JsonValidator validator)
     {
-        this.cache = cache;
-        this.features = EnumSet.copyOf(features);
-        this.schemaNode = schemaNode;
+        this.factory = factory;
+        this.validator = validator;
     }
 
     /**
      * The main validation function
      *
+     * <p>The returned report honours the message limits set on the factory
+     * (see {@link JsonSchemaFactory.Builder#setMaxMessages(int)} and {@link
+     * JsonSchemaFactory.Builder#setMaxMessagesPerPath(int)}).</p>
+     *
      * @param instance the JSON document to validate
      * @return a {@link ValidationReport}
      */
     public ValidationReport validate(final JsonNode instance)
     {
-        final ValidationContext context
-            = new ValidationContext(cache, features);
+        return validate(factory.newContext(), instance);
+    }
+
+    /**
+     * Validate an instance read from a {@link JsonParser}
+     *
+     * <p>The instance is not materialized as a whole: see {@link
+     * StreamingValidator} for details. The parser is not closed by this
+     * method; when it returns, the parser's current token is the last token
+     * of the validated value, which means you can call it again to validate
+     * the next value in a stream.</p>
+     *
+     * @param parser the parser
+     * @return a {@link ValidationReport}
+     * @throws IOException failure to read from the parser, or no value to read
+     */
+    public ValidationReport validate(final JsonParser parser)
+        throws IOException
+    {
+        return validate(factory.newContext(), parser);
+    }
+
+    /**
+     * Validate the JSON document in a file
+     *
+     * <p>The file is memory-mapped and validated as a stream (see {@link
+     * #validate(JsonParser)}): its contents are never loaded on the heap as a
+     * whole. This is the preferred method for very large documents.</p>
+     *
+     * @param file the file
+     * @return a {@link ValidationReport}
+     * @throws IOException failure to read the file, or malformed JSON
+     */
+    public ValidationReport validate(final File file)
+        throws IOException
+    {
+        return validate(file, null);
+    }
+
+    /**
+     * Validate the JSON document in a file, reporting progress
+     *
+     * @see #validate(File)
+     *
+     * @param file the file
+     * @param listener the progress listener (may be {@code null})
+     * @return a {@link ValidationReport}
+     * @throws IOException failure to read the file, or malformed JSON
+     */
+    public ValidationReport validate(final File file,
+        final ProgressListener listener)
+        throws IOException
+    {
+        final InputStream in = new MappedFileInputStream(file, listener);
 
-        final ValidationReport report = new ValidationReport();
+        try {
+            return validate(JsonLoader.newParser(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Validate an instance and only return the validation verdict
+     *
+     * <p>This uses a fail fast report (see {@link
+     * ValidationReport#failFastReport()}): no validation messages are built,
+     * and validation stops at the first failure. Use this method when you
+     * only need to know whether an instance is valid.</p>
+     *
+     * @param instance the JSON document to validate
+     * @return true if the instance is valid
+     */
+    public boolean isValid(final JsonNode instance)
+    {
+        final ValidationContext context = factory.newContext();
 
-        final JsonValidator validator = cache.getValidator(schemaNode);
+        final ValidationReport report = ValidationReport.failFastReport();
 
         validator.validate(context, report, instance);
 
+        return report.isSuccess();
+    }
+
+    /**
+     * Validate a series of instances
+     *
+     * <p>This is equivalent to calling {@link #validate(JsonNode)} on each
+     * instance, except that the validation context is reused.</p>
+     *
+     * @param instances the JSON documents to validate
+     * @return the list of reports, in the same order as the instances
+     */
+    public List<ValidationReport> validateAll(
+        final Iterable<? extends JsonNode> instances)
+    {
+        final ValidationContext context = factory.newContext();
+        final ImmutableList.Builder<ValidationReport> builder
+            = ImmutableList.builder();
+
+        for (final JsonNode instance: instances)
+            builder.add(validate(context, instance));
+
+        return builder.build();
+    }
+
+    /**
+     * Validate a series of instances using an executor
+     *
+     * <p>Instances are split into batches which are submitted to the executor;
+     * each batch reuses one validation context. The calling thread also runs
+     * batches which the executor has not started yet (or has rejected), and
+     * waits for all others to complete.</p>
+     *
+     * <p>The executor is not shut down by this method.</p>
+     *
+     * @param instances the JSON documents to validate
+     * @param executor the executor
+     * @return the list of reports, in the same order as the instances
+     * @throws RuntimeException validation was interrupted, or a validation
+     * task failed
+     */
+    public List<ValidationReport> validateAll(
+        final Iterable<? extends JsonNode> instances,
+        final ExecutorService executor)
+    {
+        final List<JsonNode> list = ImmutableList.copyOf(instances);
+        final int size = list.size();
+        final ValidationReport[] reports = new ValidationReport[size];
+        final int nrBatches = Math.max(1, Math.min(MAX_BATCHES, size));
+        final int batchSize = (size + nrBatches - 1) / nrBatches;
+        final List<FutureTask<Void>> tasks = Lists.newArrayList();
+
+        FutureTask<Void> task;
+
+        for (int start = 0; start < size; start += batchSize) {
+            task = new FutureTask<Void>(new Batch(list, reports, start,
+                Math.min(size, start + batchSize)), null);
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ignored) {
+                // Will be run by the current thread
+            }
+        }
+
+        for (final FutureTask<Void> t: tasks) {
+            // No-op if the task is running or done already
+            t.run();
+            try {
+                t.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted during validation", e);
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+
+        return ImmutableList.copyOf(reports);
+    }
+
+    /**
+     * Create a new validation context for this schema
+     *
+     * <p>A context may be reused for several validations, but only by one
+     * thread at a time.</p>
+     *
+     * @return a new context
+     */
+    ValidationContext newContext()
+    {
+        return factory.newContext();
+    }
+
+    /**
+     * Validate an instance with a given context
+     *
+     * @param context the validation context
+     * @param instance the JSON document to validate
+     * @return a {@link ValidationReport}
+     */
+    ValidationReport validate(final ValidationContext context,
+        final JsonNode instance)
+    {
+        final ValidationReport report = factory.newReport();
+
+        validator.validate(context, report, instance);
+
+        return report;
+    }
+
+    /**
+     * Validate an instance read from a parser with a given context
+     *
+     * @param context the validation context
+     * @param parser the parser
+     * @return a {@link ValidationReport}
+     * @throws IOException failure to read from the parser
+     */
+    ValidationReport validate(final ValidationContext context,
+        final JsonParser parser)
+        throws IOException
+    {
+        final ValidationReport report = factory.newReport();
+
+        StreamingValidator.validate(validator, context, report, parser);
+
         return report;
     }
+
+    /**
+     * Validation of a batch of instances
+     */
+    private final class Batch
+        implements Runnable
+    {
+        private final List<JsonNode> instances;
+        private final ValidationReport[] reports;
+        private final int start;
+        private final int end;
+
+        private Batch(final List<JsonNode> instances,
+            final ValidationReport[] reports, final int start, final int end)
+        {
+            this.instances = instances;
+            this.reports = reports;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run()
+        {
+            final ValidationContext context = factory.newContext();
+
+            for (int i = start; i < end; i++)
+                reports[i] = validate(context, instances.get(i));
+        }
+    }
 }
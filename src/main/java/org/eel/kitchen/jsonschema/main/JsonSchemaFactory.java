@@ -19,10 +19,13 @@ package org.eel.kitchen.jsonschema.main;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 import org.eel.kitchen.jsonschema.bundle.Keyword;
 import org.eel.kitchen.jsonschema.bundle.KeywordBundle;
 import org.eel.kitchen.jsonschema.bundle.KeywordBundles;
 import org.eel.kitchen.jsonschema.format.FormatBundle;
+import org.eel.kitchen.jsonschema.format.FormatCache;
 import org.eel.kitchen.jsonschema.format.FormatSpecifier;
 import org.eel.kitchen.jsonschema.ref.JsonFragment;
 import org.eel.kitchen.jsonschema.ref.JsonPointer;
@@ -30,13 +33,19 @@ import org.eel.kitchen.jsonschema.ref.JsonRef;
 import org.eel.kitchen.jsonschema.ref.SchemaContainer;
 import org.eel.kitchen.jsonschema.ref.SchemaNode;
 import org.eel.kitchen.jsonschema.ref.SchemaRegistry;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.syntax.PatternSyntaxChecker;
 import org.eel.kitchen.jsonschema.uri.URIDownloader;
 import org.eel.kitchen.jsonschema.uri.URIManager;
+import org.eel.kitchen.jsonschema.util.EcmaRegex;
 import org.eel.kitchen.jsonschema.util.NodeAndPath;
 import org.eel.kitchen.jsonschema.validator.JsonValidatorCache;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
 
 import java.net.URI;
 import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Factory to build JSON Schema validating instances
@@ -70,6 +79,36 @@ public final class JsonSchemaFactory
      */
     private final EnumSet<ValidationFeature> features;
 
+    /**
+     * Maximum number of validation messages per report
+     */
+    private final int maxMessages;
+
+    /**
+     * Maximum number of validation messages per instance path
+     */
+    private final int maxMessagesPerPath;
+
+    /**
+     * Executor for parallel array validation, {@code null} if disabled
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Minimum array size for parallel validation
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Budget for regex matching, 0 for no limit
+     */
+    private final long regexBudget;
+
+    /**
+     * Cache of format check results, {@code null} if disabled
+     */
+    private final FormatCache formatCache;
+
     /**
      * Build a factory with all default settings
      *
@@ -89,8 +128,65 @@ public final class JsonSchemaFactory
     private JsonSchemaFactory(final Builder builder)
     {
         registry = new SchemaRegistry(builder.uriManager, builder.namespace);
-        cache = new JsonValidatorCache(builder.keywordBundle, registry);
         features = EnumSet.copyOf(builder.features);
+        cache = new JsonValidatorCache(keywordBundle(builder),
+            builder.formatBundle, registry);
+        maxMessages = builder.maxMessages;
+        maxMessagesPerPath = builder.maxMessagesPerPath;
+        executor = builder.executor;
+        parallelThreshold = builder.parallelThreshold;
+        regexBudget = builder.regexBudget;
+        formatCache = formatCache(builder);
+    }
+
+    /**
+     * Return the format check cache to use, given the builder settings
+     *
+     * @param builder the builder
+     * @return the cache, {@code null} if disabled
+     */
+    private static FormatCache formatCache(final Builder builder)
+    {
+        if (builder.formatCacheSize == 0L)
+            return null;
+
+        if (builder.formatCacheExpiry == 0L)
+            return new FormatCache(builder.formatCacheSize);
+
+        return new FormatCache(builder.formatCacheSize,
+            builder.formatCacheExpiry, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Return the keyword bundle to use, given the features of this factory
+     *
+     * <p>If {@link ValidationFeature#REJECT_BACKTRACKING_REGEXES} is enabled
+     * and the bundle uses the default syntax checker for {@code pattern}, that
+     * checker is replaced with a checker which also rejects regexes prone to
+     * catastrophic backtracking.</p>
+     *
+     * @param builder the builder
+     * @return the keyword bundle
+     */
+    private KeywordBundle keywordBundle(final Builder builder)
+    {
+        final KeywordBundle bundle = builder.keywordBundle;
+
+        if (!features.contains(ValidationFeature.REJECT_BACKTRACKING_REGEXES)
+            || bundle.getSyntaxCheckers().get("pattern")
+                != PatternSyntaxChecker.getInstance())
+            return bundle;
+
+        final KeywordBundle ret = new KeywordBundle();
+        ret.mergeWith(bundle);
+
+        final Keyword keyword = Keyword.withName("pattern")
+            .withSyntaxChecker(PatternSyntaxChecker.getStrictInstance())
+            .withValidatorClass(bundle.getValidators().get("pattern"))
+            .build();
+        ret.registerKeyword(keyword);
+
+        return ret;
     }
 
     /**
@@ -228,7 +324,50 @@ public final class JsonSchemaFactory
         final NodeAndPath nodeAndPath)
     {
         final SchemaNode schemaNode = new SchemaNode(container, nodeAndPath);
-        return new JsonSchema(cache, features, schemaNode);
+        return new JsonSchema(this, cache.compile(schemaNode));
+    }
+
+    /**
+     * Create a new validation context for this factory's settings
+     *
+     * @return a new context
+     */
+    ValidationContext newContext()
+    {
+        final ValidationContext ret = new ValidationContext(cache, features);
+
+        if (executor != null)
+            ret.enableParallelArrays(executor, parallelThreshold);
+
+        ret.setRegexBudget(regexBudget);
+        ret.setFormatCache(formatCache);
+
+        return ret;
+    }
+
+    /**
+     * Return the statistics of the format check cache
+     *
+     * <p>If the cache is not enabled, all statistics are 0.</p>
+     *
+     * @see Builder#enableFormatCache(long)
+     *
+     * @return the statistics
+     */
+    public CacheStats getFormatCacheStats()
+    {
+        return formatCache == null ? new CacheStats(0L, 0L, 0L, 0L, 0L, 0L)
+            : formatCache.stats();
+    }
+
+    /**
+     * Create a new validation report for this factory's settings
+     *
+     * @return a new report
+     */
+    ValidationReport newReport()
+    {
+        return new ValidationReport(maxMessages, maxMessagesPerPath);
     }
 
     /**
@@ -262,6 +401,42 @@ public final class JsonSchemaFactory
          */
         private FormatBundle formatBundle = FormatBundle.defaultBundle();
 
+        /**
+         * The maximum number of validation messages per report
+         */
+        private int maxMessages = Integer.MAX_VALUE;
+
+        /**
+         * The maximum number of validation messages per instance path
+         */
+        private int maxMessagesPerPath = Integer.MAX_VALUE;
+
+        /**
+         * The executor for parallel array validation
+         */
+        private ExecutorService executor = null;
+
+        /**
+         * The minimum array size for parallel validation
+         */
+        private int parallelThreshold = Integer.MAX_VALUE;
+
+        /**
+         * The budget for regex matching, 0 for no limit
+         */
+        private long regexBudget = 0L;
+
+        /**
+         * The maximum size of the format check cache, 0 if disabled
+         */
+        private long formatCacheSize = 0L;
+
+        /**
+         * The time after which unused format check results are evicted, in
+         * milliseconds, 0 if never
+         */
+        private long formatCacheExpiry = 0L;
+
         /**
          * Register a {@link URIDownloader} for a given scheme
          *
@@ -457,6 +632,148 @@ public final class JsonSchemaFactory
             return this;
         }
 
+        /**
+         * Set the maximum number of messages in a validation report
+         *
+         * <p>When this number is reached, validation stops. By default, there
+         * is no limit.</p>
+         *
+         * @param maxMessages the maximum number of messages
+         * @return the builder
+         * @throws IllegalArgumentException argument is lower than 1
+         */
+        public Builder setMaxMessages(final int maxMessages)
+        {
+            Preconditions.checkArgument(maxMessages > 0,
+                "maximum number of messages must be greater than 0");
+            this.maxMessages = maxMessages;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of messages for one instance path
+         *
+         * <p>Further messages for this path are discarded. By default, there
+         * is no limit.</p>
+         *
+         * @param maxMessagesPerPath the maximum number of messages
+         * @return the builder
+         * @throws IllegalArgumentException argument is lower than 1
+         */
+        public Builder setMaxMessagesPerPath(final int maxMessagesPerPath)
+        {
+            Preconditions.checkArgument(maxMessagesPerPath > 0,
+                "maximum number of messages per path must be greater than 0");
+            this.maxMessagesPerPath = maxMessagesPerPath;
+            return this;
+        }
+
+        /**
+         * Enable parallel validation of large arrays
+         *
+         * <p>Array instances with at least {@code threshold} elements are split
+         * into chunks, which are validated by tasks submitted to the given
+         * executor. Reports for all chunks are then merged in element order.
+         * Smaller arrays are still validated sequentially.</p>
+         *
+         * <p>The executor is not shut down by the factory. Note that the
+         * validating thread runs chunks itself if the executor is busy, so a
+         * bounded executor cannot cause validation to deadlock.</p>
+         *
+         * @param executor the executor
+         * @param threshold the minimum array size for parallel validation
+         * @return the builder
+         * @throws NullPointerException executor is null
+         * @throws IllegalArgumentException threshold is lower than 2
+         */
+        public Builder enableParallelArrays(final ExecutorService executor,
+            final int threshold)
+        {
+            Preconditions.checkNotNull(executor, "executor is null");
+            Preconditions.checkArgument(threshold > 1,
+                "threshold must be greater than 1");
+            this.executor = executor;
+            parallelThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Bound the cost of regex matching
+         *
+         * <p>Regexes coming from untrusted schemas may need an exponential
+         * time to match some inputs. With this setting, matching a regex of
+         * {@code pattern} or {@code patternProperties} is abandoned when it
+         * reads more than {@code budget} characters from the input, and
+         * validation fails with a dedicated message. By default, there is no
+         * limit.</p>
+         *
+         * @see EcmaRegex#matches(String, long)
+         *
+         * @param budget the maximum number of characters read per match
+         * @return the builder
+         * @throws IllegalArgumentException budget is lower than 1
+         */
+        public Builder setRegexBudget(final long budget)
+        {
+            Preconditions.checkArgument(budget > 0L,
+                "regex budget must be greater than 0");
+            regexBudget = budget;
+            return this;
+        }
+
+        /**
+         * Enable caching of format check results
+         *
+         * <p>Results of the {@code format} keyword for string values are then
+         * remembered, up to {@code maximumSize} entries; the least recently
+         * used entries are evicted first. Statistics are available using
+         * {@link JsonSchemaFactory#getFormatCacheStats()}. Custom format
+         * specifiers must give the same result for the same value each time.
+         * By default, there is no cache.</p>
+         *
+         * @see FormatCache
+         *
+         * @param maximumSize the maximum number of cached results
+         * @return the builder
+         * @throws IllegalArgumentException maximum size is lower than 1
+         */
+        public Builder enableFormatCache(final long maximumSize)
+        {
+            Preconditions.checkArgument(maximumSize > 0L,
+                "maximum size must be greater than 0");
+            formatCacheSize = maximumSize;
+            formatCacheExpiry = 0L;
+            return this;
+        }
+
+        /**
+         * Enable caching of format check results, with time based eviction
+         *
+         * <p>This is the same as {@link #enableFormatCache(long)}, except that
+         * results which have not been used for the given duration are also
+         * evicted.</p>
+         *
+         * @param maximumSize the maximum number of cached results
+         * @param duration the time after which an unused result is evicted
+         * @param unit the unit of {@code duration}
+         * @return the builder
+         * @throws NullPointerException unit is null
+         * @throws IllegalArgumentException maximum size is lower than 1, or
+         * duration is shorter than one millisecond
+         */
+        public Builder enableFormatCache(final long maximumSize,
+            final long duration, final TimeUnit unit)
+        {
+            Preconditions.checkNotNull(unit, "time unit is null");
+            Preconditions.checkArgument(maximumSize > 0L,
+                "maximum size must be greater than 0");
+            Preconditions.checkArgument(unit.toMillis(duration) > 0L,
+                "duration must be at least one millisecond");
+            formatCacheSize = maximumSize;
+            formatCacheExpiry = unit.toMillis(duration);
+            return this;
+        }
+
         /**
          * Build the factory
          *
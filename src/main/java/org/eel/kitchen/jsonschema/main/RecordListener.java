@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.main;
+
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+
+/**
+ * Callback interface for {@link RecordStreamValidator}
+ *
+ * <p>The listener is called once per record, in input order, and always from
+ * the same thread for a given validation run.</p>
+ */
+public interface RecordListener
+{
+    /**
+     * Called when a record has been validated
+     *
+     * @param lineNumber the line number where the record starts (1-based)
+     * @param offset the offset where the record starts (in bytes if reading
+     * from an {@link java.io.InputStream}, in characters if reading from a
+     * {@link java.io.Reader})
+     * @param report the validation report for this record
+     */
+    void onRecord(long lineNumber, long offset, ValidationReport report);
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.main;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Validator for streams of records against a single schema
+ *
+ * <p>This class reads a sequence of root-level JSON values from an input
+ * (typically newline-delimited JSON, but any whitespace-separated sequence of
+ * values is accepted), validates each of them against a {@link JsonSchema} and
+ * reports the result of each validation to a {@link RecordListener}.</p>
+ *
+ * <p>Records are read one at a time, using a parser configured like all
+ * other parsers of this library (see {@link JsonLoader}): memory usage does
+ * not depend on the number of records. A single parser and a single
+ * validation context are used for the whole input.</p>
+ *
+ * <p>Malformed input stops the validation and is reported as an {@link
+ * IOException}; records read before the error have been reported to the
+ * listener.</p>
+ *
+ * <p>This class is thread safe; the input is never closed.</p>
+ */
+public final class RecordStreamValidator
+{
+    /**
+     * Number of parsed records which may be waiting for validation in
+     * pipelined mode
+     */
+    private static final int QUEUE_SIZE = 64;
+
+    /**
+     * Delay between two checks of the validation task by the parsing thread
+     */
+    private static final long POLL_DELAY_MS = 100L;
+
+    /**
+     * Marker for the end of input in pipelined mode
+     */
+    private static final Record END = new Record(null, -1L, -1L);
+
+    private final JsonSchema schema;
+
+    public RecordStreamValidator(final JsonSchema schema)
+    {
+        Preconditions.checkNotNull(schema, "schema must not be null");
+        this.schema = schema;
+    }
+
+    /**
+     * Validate all records from an input stream
+     *
+     * @param in the input stream
+     * @param listener the listener
+     * @return the number of records read
+     * @throws IOException failure to read from the input, or malformed input
+     */
+    public long validate(final InputStream in, final RecordListener listener)
+        throws IOException
+    {
+        Preconditions.checkNotNull(listener, "listener must not be null");
+        return validate(JsonLoader.newParser(in), listener);
+    }
+
+    /**
+     * Validate all records from a reader
+     *
+     * @param reader the reader
+     * @param listener the listener
+     * @return the number of records read
+     * @throws IOException failure to read from the input, or malformed input
+     */
+    public long validate(final Reader reader, final RecordListener listener)
+        throws IOException
+    {
+        Preconditions.checkNotNull(listener, "listener must not be null");
+        return validate(JsonLoader.newParser(reader), listener);
+    }
+
+    /**
+     * Validate all records from an input stream, in pipelined mode
+     *
+     * <p>In this mode, the current thread parses records while a task
+     * submitted to the executor validates them and calls the listener. This
+     * is useful when both parsing and validation are expensive.</p>
+     *
+     * <p>If the executor rejects the task, validation is done by the current
+     * thread. The same goes if the executor accepts the task but does not
+     * start it in time (for instance, because all its threads are busy, or
+     * because this method is called from the only thread of the executor):
+     * in this case, the current thread validates the records parsed so far,
+     * then all other records, and the task does nothing when it eventually
+     * runs.</p>
+     *
+     * @param in the input stream
+     * @param listener the listener
+     * @param executor the executor
+     * @return the number of records read
+     * @throws IOException failure to read from the input, or malformed input
+     * @throws InterruptedIOException the current thread was interrupted
+     */
+    public long validatePipelined(final InputStream in,
+        final RecordListener listener, final ExecutorService executor)
+        throws IOException
+    {
+        Preconditions.checkNotNull(listener, "listener must not be null");
+        Preconditions.checkNotNull(executor, "executor must not be null");
+
+        final JsonParser parser = JsonLoader.newParser(in);
+        final BlockingQueue<Record> queue
+            = new ArrayBlockingQueue<Record>(QUEUE_SIZE);
+        final Consumer consumer = new Consumer(queue, listener);
+        final FutureTask<Long> task = new FutureTask<Long>(consumer);
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ignored) {
+            return validate(parser, listener);
+        }
+
+        boolean success = false;
+        Offer offer;
+
+        try {
+            while (parser.nextToken() != null) {
+                final JsonLocation location = parser.getTokenLocation();
+                final JsonNode node = JsonLoader.fromParser(parser);
+                final Record record = new Record(node, location);
+                offer = offer(queue, task, consumer, record);
+                if (offer == Offer.TASK_CLAIMED)
+                    return consumer.drain(record) + validate(parser, listener);
+                if (offer == Offer.TASK_DONE)
+                    break;
+            }
+            offer = offer(queue, task, consumer, END);
+            if (offer == Offer.TASK_CLAIMED
+                || offer == Offer.QUEUED && consumer.claim())
+                return consumer.drain(END);
+            success = true;
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while validating");
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            if (!success)
+                task.cancel(true);
+        }
+    }
+
+    private long validate(final JsonParser parser,
+        final RecordListener listener)
+        throws IOException
+    {
+        final ValidationContext context = schema.newContext();
+
+        JsonLocation location;
+        ValidationReport report;
+        long count = 0L;
+
+        while (parser.nextToken() != null) {
+            location = parser.getTokenLocation();
+            report = schema.validate(context, parser);
+            listener.onRecord(location.getLineNr(), offsetOf(location),
+                report);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Queue a record, unless the validation task has terminated or has not
+     * started
+     *
+     * <p>If the queue is full and the validation task has not started, the
+     * task is claimed by the current thread: it must then validate the
+     * records itself (see {@link Consumer#drain(Record)}).</p>
+     *
+     * @return the outcome
+     */
+    private static Offer offer(final BlockingQueue<Record> queue,
+        final FutureTask<Long> task, final Consumer consumer,
+        final Record record)
+        throws InterruptedException
+    {
+        while (!queue.offer(record, POLL_DELAY_MS, TimeUnit.MILLISECONDS)) {
+            if (task.isDone())
+                return Offer.TASK_DONE;
+            if (consumer.claim())
+                return Offer.TASK_CLAIMED;
+        }
+        return Offer.QUEUED;
+    }
+
+    /**
+     * Offset of a location: in bytes if available, in characters otherwise
+     */
+    private static long offsetOf(final JsonLocation location)
+    {
+        final long ret = location.getByteOffset();
+        return ret >= 0L ? ret : location.getCharOffset();
+    }
+
+    private enum Offer
+    {
+        QUEUED,
+        TASK_DONE,
+        TASK_CLAIMED
+    }
+
+    private static final class Record
+    {
+        private final JsonNode node;
+        private final long lineNumber;
+        private final long offset;
+
+        private Record(final JsonNode node, final long lineNumber,
+            final long offset)
+        {
+            this.node = node;
+            this.lineNumber = lineNumber;
+            this.offset = offset;
+        }
+
+        private Record(final JsonNode node, final JsonLocation location)
+        {
+            this(node, location.getLineNr(), offsetOf(location));
+        }
+    }
+
+    private final class Consumer
+        implements Callable<Long>
+    {
+        private final BlockingQueue<Record> queue;
+        private final RecordListener listener;
+
+        /**
+         * Set by whichever of the validation task or the parsing thread runs
+         * first
+         */
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        private Consumer(final BlockingQueue<Record> queue,
+            final RecordListener listener)
+        {
+            this.queue = queue;
+            this.listener = listener;
+        }
+
+        /**
+         * Claim the validation of records
+         *
+         * @return true if the validation task has not started, and never will
+         */
+        private boolean claim()
+        {
+            return started.compareAndSet(false, true);
+        }
+
+        @Override
+        public Long call()
+            throws InterruptedException
+        {
+            if (!claim())
+                return 0L;
+
+            final ValidationContext context = schema.newContext();
+
+            Record record;
+            long count = 0L;
+
+            while (true) {
+                record = queue.take();
+                if (record == END)
+                    return count;
+                validate(context, record);
+                count++;
+            }
+        }
+
+        /**
+         * Validate queued records, then one more record, in the current thread
+         *
+         * <p>This must only be called once {@link #claim()} has succeeded.</p>
+         *
+         * @param last the last record, or {@link #END}
+         * @return the number of records validated
+         */
+        private long drain(final Record last)
+        {
+            final ValidationContext context = schema.newContext();
+
+            Record record;
+            long count = 0L;
+
+            while ((record = queue.poll()) != null && record != END) {
+                validate(context, record);
+                count++;
+            }
+
+            if (last == END)
+                return count;
+
+            validate(context, last);
+            return count + 1L;
+        }
+
+        private void validate(final ValidationContext context,
+            final Record record)
+        {
+            final ValidationReport report
+                = schema.validate(context, record.node);
+            listener.onRecord(record.lineNumber, record.offset, report);
+        }
+    }
+}
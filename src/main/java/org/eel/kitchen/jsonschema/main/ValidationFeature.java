@@ -19,6 +19,9 @@ package org.eel.kitchen.jsonschema.main;
 
 import org.eel.kitchen.jsonschema.format.EmailFormatSpecifier;
 import org.eel.kitchen.jsonschema.format.HostnameFormatSpecifier;
+import org.eel.kitchen.jsonschema.format.RegexFormatSpecifier;
+import org.eel.kitchen.jsonschema.syntax.PatternSyntaxChecker;
+import org.eel.kitchen.jsonschema.util.RegexAnalyzer;
 
 /**
  * Validation features
@@ -32,5 +35,14 @@ public enum ValidationFeature
      * @see EmailFormatSpecifier
      * @see HostnameFormatSpecifier
      */
-    STRICT_RFC_CONFORMANCE
+    STRICT_RFC_CONFORMANCE,
+    /**
+     * Reject regexes prone to catastrophic backtracking in {@code pattern}
+     * and in the {@code regex} format specifier
+     *
+     * @see RegexAnalyzer
+     * @see PatternSyntaxChecker
+     * @see RegexFormatSpecifier
+     */
+    REJECT_BACKTRACKING_REGEXES
 }
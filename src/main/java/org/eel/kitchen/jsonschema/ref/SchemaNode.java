@@ -32,6 +32,13 @@ import org.eel.kitchen.jsonschema.validator.JsonValidatorCache;
  * implementations of {@link Object#equals(Object)} and {@link
  * Object#hashCode()}.</p>
  *
+ * <p>For this reason, schema nodes are compared using the identity of their
+ * {@link JsonNode}, not its value: computing the hash code of, or comparing,
+ * an object node means walking its whole subtree, which is prohibitively
+ * expensive for large schemas. This is not a problem since subschemas are
+ * always obtained from their container's schema, and therefore are always
+ * the same instances.</p>
+ *
  * <p>This class is thread safe and immutable.</p>
  *
  * @see JsonValidatorCache
@@ -54,7 +61,7 @@ public final class SchemaNode
         this.container = container;
         this.path = path;
         this.node = node;
-        hashCode = 31 * container.hashCode() + node.hashCode();
+        hashCode = 31 * container.hashCode() + System.identityHashCode(node);
     }
 
     public SchemaNode(final SchemaContainer container,
@@ -102,8 +109,7 @@ public final class SchemaNode
 
         final SchemaNode other = (SchemaNode) obj;
 
-        return container.equals(other.container)
-            && node.equals(other.node);
+        return node == other.node && container.equals(other.container);
     }
 
     @Override
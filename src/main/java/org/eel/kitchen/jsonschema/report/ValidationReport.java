@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ListMultimap;
@@ -32,6 +33,7 @@ import org.eel.kitchen.jsonschema.ref.JsonPointer;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A validation report
@@ -47,6 +49,16 @@ import java.util.List;
  * <p>You can retrieve messages either as a list of plain strings or JSON
  * (either an object or an array).</p>
  *
+ * <p>A report can also be created in fail fast mode (see {@link
+ * #failFastReport()}). In this mode, only the validation verdict matters:
+ * validators should call {@link #failFast()} before building a message, and
+ * stop as soon as {@link #shouldStop()} returns {@code true}.</p>
+ *
+ * <p>Finally, a report may limit the number of messages it collects, either
+ * in total or per path (see {@link #ValidationReport(int, int)}). When the
+ * total limit is reached, validation stops; further messages for a path whose
+ * limit is reached are discarded.</p>
+ *
  * @see JsonSchema#validate(JsonNode)
  */
 public final class ValidationReport
@@ -80,22 +92,150 @@ public final class ValidationReport
 
     private boolean fatal = false;
 
+    /**
+     * Whether this report is in fail fast mode
+     */
+    private final boolean failFast;
+
+    /**
+     * Whether a failure has been recorded without a message
+     *
+     * @see #failFast()
+     */
+    private boolean failed = false;
+
+    /**
+     * Maximum number of messages
+     */
+    private final int maxMessages;
+
+    /**
+     * Maximum number of messages per path
+     */
+    private final int maxMessagesPerPath;
+
+    /**
+     * Whether messages have been discarded because of a limit
+     */
+    private boolean truncated = false;
+
     /**
      * Create a new validation report with {@link #ROOT} as an instance path
      */
     public ValidationReport()
     {
-        this(ROOT);
+        this(ROOT, false, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a new validation report with limits on the number of messages
+     *
+     * @param maxMessages the maximum number of messages
+     * @param maxMessagesPerPath the maximum number of messages for one path
+     * @throws IllegalArgumentException one limit is lower than 1
+     */
+    public ValidationReport(final int maxMessages,
+        final int maxMessagesPerPath)
+    {
+        this(ROOT, false, maxMessages, maxMessagesPerPath);
+        Preconditions.checkArgument(maxMessages > 0,
+            "maximum number of messages must be greater than 0");
+        Preconditions.checkArgument(maxMessagesPerPath > 0,
+            "maximum number of messages per path must be greater than 0");
     }
 
     /**
      * Create a new validation report with an arbitraty path
      *
      * @param path the JSON Pointer
+     * @param failFast whether this report is in fail fast mode
+     * @param maxMessages the maximum number of messages
+     * @param maxMessagesPerPath the maximum number of messages for one path
      */
-    private ValidationReport(final JsonPointer path)
+    private ValidationReport(final JsonPointer path, final boolean failFast,
+        final int maxMessages, final int maxMessagesPerPath)
     {
         this.path = path;
+        this.failFast = failFast;
+        this.maxMessages = maxMessages;
+        this.maxMessagesPerPath = maxMessagesPerPath;
+    }
+
+    /**
+     * Create a new validation report in fail fast mode
+     *
+     * <p>Such a report is only meant to be asked for {@link #isSuccess()}: it
+     * may not contain any messages even if validation fails.</p>
+     *
+     * @return a new report, with {@link #ROOT} as an instance path
+     */
+    public static ValidationReport failFastReport()
+    {
+        return new ValidationReport(ROOT, true, Integer.MAX_VALUE,
+            Integer.MAX_VALUE);
+    }
+
+    /**
+     * Is this report in fail fast mode?
+     *
+     * @return true if it is
+     */
+    public boolean isFailFast()
+    {
+        return failFast;
+    }
+
+    /**
+     * Record a failure without a message, if no message is needed
+     *
+     * <p>Validators should call this method before building a message. If it
+     * returns {@code true}, the failure is recorded and no message needs to be
+     * built. This is the case if this report is in fail fast mode, or if a
+     * message at the current path would be discarded anyway (because of a
+     * fatal error, or a limit).</p>
+     *
+     * @return true if no message should be built
+     */
+    public boolean failFast()
+    {
+        if (failFast) {
+            failed = true;
+            return true;
+        }
+
+        if (fatal)
+            return true;
+
+        if (!isFull())
+            return false;
+
+        truncated = true;
+        return true;
+    }
+
+    /**
+     * Tell whether validators should stop validating
+     *
+     * <p>This is the case if a fatal error has been encountered, if this
+     * report is in fail fast mode and validation has already failed, or if
+     * the maximum number of messages has been reached.</p>
+     *
+     * @return true if validation should stop
+     */
+    public boolean shouldStop()
+    {
+        return fatal || failFast && !isSuccess()
+            || msgMap.size() >= maxMessages;
+    }
+
+    /**
+     * Tell whether messages have been discarded because of a limit
+     *
+     * @return true if some messages have been discarded
+     */
+    public boolean isTruncated()
+    {
+        return truncated;
     }
 
     /**
@@ -133,9 +273,27 @@ public final class ValidationReport
         if (message.isFatal()) {
             fatal = true;
             msgMap.clear();
+            msgMap.put(path, message);
+            return true;
         }
-        msgMap.put(path, message);
-        return fatal;
+
+        if (isFull())
+            truncated = true;
+        else
+            msgMap.put(path, message);
+
+        return false;
+    }
+
+    /**
+     * Tell whether a message at the current path would be discarded
+     *
+     * @return true if a limit has been reached
+     */
+    private boolean isFull()
+    {
+        return msgMap.size() >= maxMessages
+            || msgMap.get(path).size() >= maxMessagesPerPath;
     }
 
     /**
@@ -150,6 +308,16 @@ public final class ValidationReport
                 return;
     }
 
+    /**
+     * Get the messages recorded at the current path, in insertion order
+     *
+     * @return an immutable list of messages
+     */
+    public List<Message> getCurrentMessages()
+    {
+        return ImmutableList.copyOf(msgMap.get(path));
+    }
+
     public int size()
     {
         return msgMap.size();
@@ -158,11 +326,12 @@ public final class ValidationReport
     /**
      * Is this report a success?
      *
-     * @return true if the message map is empty
+     * @return true if the message map is empty and no failure has been
+     * recorded
      */
     public boolean isSuccess()
     {
-        return msgMap.isEmpty();
+        return !failed && msgMap.isEmpty();
     }
 
     public boolean hasFatalError()
@@ -185,18 +354,36 @@ public final class ValidationReport
             fatal = true;
         }
 
-        msgMap.putAll(other.msgMap);
+        failed |= other.failed;
+        truncated |= other.truncated;
+
+        if (fatal || maxMessages == Integer.MAX_VALUE
+            && maxMessagesPerPath == Integer.MAX_VALUE) {
+            msgMap.putAll(other.msgMap);
+            return;
+        }
+
+        final JsonPointer orig = path;
+
+        for (final Map.Entry<JsonPointer, Message> entry:
+            other.msgMap.entries()) {
+            path = entry.getKey();
+            addMessage(entry.getValue());
+        }
+
+        path = orig;
     }
 
     /**
-     * Make a copy of this validation report, with an empty message map and
-     * the current path.
+     * Make a copy of this validation report, with an empty message map, the
+     * current path, the same fail fast mode and the same limits.
      *
      * @return the new report
      */
     public ValidationReport copy()
     {
-        return new ValidationReport(path);
+        return new ValidationReport(path, failFast, maxMessages,
+            maxMessagesPerPath);
     }
 
     /**
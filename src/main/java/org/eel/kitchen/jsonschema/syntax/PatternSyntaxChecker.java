@@ -20,27 +20,42 @@ package org.eel.kitchen.jsonschema.syntax;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.util.NodeType;
+import org.eel.kitchen.jsonschema.util.RegexAnalyzer;
 import org.eel.kitchen.jsonschema.util.RhinoHelper;
 
 import java.util.List;
 
 /**
  * Syntax validator for the {@code pattern} keyword
+ *
+ * <p>The strict instance also rejects regexes prone to catastrophic
+ * backtracking (see {@link RegexAnalyzer}).</p>
  */
 public final class PatternSyntaxChecker
     extends SimpleSyntaxChecker
 {
     private static final PatternSyntaxChecker instance
-        = new PatternSyntaxChecker();
+        = new PatternSyntaxChecker(false);
+
+    private static final PatternSyntaxChecker strictInstance
+        = new PatternSyntaxChecker(true);
+
+    private final boolean strict;
 
     public static PatternSyntaxChecker getInstance()
     {
         return instance;
     }
 
-    private PatternSyntaxChecker()
+    public static PatternSyntaxChecker getStrictInstance()
+    {
+        return strictInstance;
+    }
+
+    private PatternSyntaxChecker(final boolean strict)
     {
         super("pattern", NodeType.STRING);
+        this.strict = strict;
     }
 
     @Override
@@ -48,12 +63,19 @@ public final class PatternSyntaxChecker
         final JsonNode schema)
     {
         final String value = schema.get(keyword).textValue();
-        if (RhinoHelper.regexIsValid(value))
+
+        if (!RhinoHelper.regexIsValid(value)) {
+            msg.setMessage("pattern is not a valid ECMA 262 regex")
+                .addInfo("found", value);
+            messages.add(msg.build());
             return;
+        }
 
-        msg.setMessage("pattern is not a valid ECMA 262 regex")
-            .addInfo("found", value);
+        if (!strict || !RegexAnalyzer.isBacktrackingProne(value))
+            return;
 
+        msg.setMessage("pattern is prone to catastrophic backtracking")
+            .addInfo("found", value);
         messages.add(msg.build());
     }
 }
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Finder of duplicate elements in a JSON array
+ *
+ * <p>Two elements are considered equal if {@link JsonNode#equals(Object)}
+ * says so; this class therefore gives the same answers as inserting all
+ * elements into a {@link java.util.HashSet}, but much faster for large
+ * elements:</p>
+ *
+ * <ul>
+ *     <li>a 64 bit key is computed for each element, in a single bottom-up
+ *     pass over its subtree;</li>
+ *     <li>keys are then inserted into an open addressing table, and elements
+ *     are only compared if their keys are equal.</li>
+ * </ul>
+ *
+ * <p>If all elements are integers of the same node class, or all are doubles,
+ * the key is the value itself and no comparison is needed at all. If all
+ * elements are strings, the (cached) hash code of the string is used as a
+ * key.</p>
+ *
+ * <p>Keys may be computed in parallel for very large arrays.</p>
+ */
+public final class DuplicateFinder
+{
+    /**
+     * Minimum number of elements in a chunk, for parallel key computation
+     */
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    /**
+     * Maximum number of chunks, for parallel key computation
+     */
+    private static final int MAX_CHUNKS
+        = 4 * Runtime.getRuntime().availableProcessors();
+
+    /*
+     * Kinds of arrays
+     */
+    private static final int INTEGRAL = 0;
+    private static final int DOUBLE = 1;
+    private static final int TEXT = 2;
+    private static final int GENERAL = 3;
+
+    private static final long ARRAY_SEED = 0x9e3779b97f4a7c15L;
+    private static final long OBJECT_SEED = 0xc2b2ae3d27d4eb4fL;
+    private static final long PRIME = 0x100000001b3L;
+
+    private DuplicateFinder()
+    {
+    }
+
+    /**
+     * Find the first pair of equal elements in an array
+     *
+     * @param array the array
+     * @return the indices of both elements, or {@code null} if all elements
+     * are distinct
+     */
+    public static int[] findDuplicate(final JsonNode array)
+    {
+        return findDuplicate(array, null);
+    }
+
+    /**
+     * Find the first pair of equal elements in an array, computing keys in
+     * parallel
+     *
+     * <p>The array is split into chunks, all but the first of which are
+     * submitted to the executor. The current thread computes keys for the
+     * first chunk, then for any chunk which has not been started yet.</p>
+     *
+     * <p>The first pair is the one where the second element has the lowest
+     * index; the first element is the first occurrence of that value.</p>
+     *
+     * @param array the array
+     * @param executor the executor, or {@code null} to compute all keys in the
+     * current thread
+     * @return the indices of both elements, or {@code null} if all elements
+     * are distinct
+     */
+    public static int[] findDuplicate(final JsonNode array,
+        final ExecutorService executor)
+    {
+        final int size = array.size();
+
+        if (size < 2)
+            return null;
+
+        final int kind = arrayKind(array);
+        final long[] keys = new long[size];
+
+        if (executor == null || size < 2 * MIN_CHUNK_SIZE)
+            computeKeys(array, kind, keys, 0, size);
+        else
+            computeKeysParallel(array, kind, keys, executor);
+
+        return findDuplicate(array, keys, kind == INTEGRAL || kind == DOUBLE);
+    }
+
+    /**
+     * Compute the structural key of a JSON value
+     *
+     * <p>Equal values have equal keys.</p>
+     *
+     * @param node the value
+     * @return the key
+     */
+    static long structuralKey(final JsonNode node)
+    {
+        if (node.isObject()) {
+            long ret = OBJECT_SEED;
+            final Iterator<Map.Entry<String, JsonNode>> iterator
+                = node.fields();
+            Map.Entry<String, JsonNode> entry;
+            // Entry keys are summed: member order is not significant
+            while (iterator.hasNext()) {
+                entry = iterator.next();
+                ret += mix(entry.getKey().hashCode() * PRIME
+                    ^ structuralKey(entry.getValue()));
+            }
+            return mix(ret + node.size());
+        }
+
+        if (node.isArray()) {
+            long ret = ARRAY_SEED;
+            for (final JsonNode element: node)
+                ret = ret * PRIME + structuralKey(element);
+            return mix(ret + node.size());
+        }
+
+        if (node.isTextual())
+            return mix(node.textValue().hashCode());
+
+        if (node instanceof IntNode || node instanceof LongNode)
+            return mix(node.longValue());
+
+        if (node instanceof DoubleNode)
+            return mix(doubleKey(node.doubleValue()));
+
+        return mix(node.hashCode());
+    }
+
+    private static int arrayKind(final JsonNode array)
+    {
+        final Class<?> c = array.get(0).getClass();
+        final int kind;
+
+        if (c == IntNode.class || c == LongNode.class)
+            kind = INTEGRAL;
+        else if (c == DoubleNode.class)
+            kind = DOUBLE;
+        else if (c == TextNode.class)
+            kind = TEXT;
+        else
+            return GENERAL;
+
+        for (final JsonNode element: array) {
+            if (element.getClass() != c)
+                return GENERAL;
+            // NaN is not equal to itself
+            if (kind == DOUBLE && Double.isNaN(element.doubleValue()))
+                return GENERAL;
+        }
+
+        return kind;
+    }
+
+    private static void computeKeys(final JsonNode array, final int kind,
+        final long[] keys, final int start, final int end)
+    {
+        for (int i = start; i < end; i++)
+            keys[i] = key(array.get(i), kind);
+    }
+
+    private static long key(final JsonNode element, final int kind)
+    {
+        switch (kind) {
+            case INTEGRAL:
+                return element.longValue();
+            case DOUBLE:
+                return doubleKey(element.doubleValue());
+            case TEXT:
+                return element.textValue().hashCode();
+            default:
+                return structuralKey(element);
+        }
+    }
+
+    private static void computeKeysParallel(final JsonNode array,
+        final int kind, final long[] keys, final ExecutorService executor)
+    {
+        final int size = keys.length;
+        final int nrChunks = Math.min(MAX_CHUNKS, size / MIN_CHUNK_SIZE);
+        final int chunkSize = (size + nrChunks - 1) / nrChunks;
+        final List<FutureTask<Void>> tasks = Lists.newArrayList();
+
+        FutureTask<Void> task;
+
+        for (int start = 0; start < size; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(size, start + chunkSize);
+            task = new FutureTask<Void>(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    computeKeys(array, kind, keys, from, to);
+                }
+            }, null);
+            tasks.add(task);
+            if (start == 0)
+                continue;
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ignored) {
+                // Will be run by the current thread
+            }
+        }
+
+        for (final FutureTask<Void> t: tasks) {
+            // No-op if the task is running or done already
+            t.run();
+            try {
+                t.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while looking for"
+                    + " duplicate elements", e);
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Find the first pair of equal elements, given their keys
+     *
+     * @param array the array
+     * @param keys the keys
+     * @param exact whether equal keys mean equal elements
+     * @return the indices of both elements, or {@code null}
+     */
+    private static int[] findDuplicate(final JsonNode array,
+        final long[] keys, final boolean exact)
+    {
+        final int size = keys.length;
+        final int mask = Integer.highestOneBit(2 * size - 1) * 2 - 1;
+        // Indices plus one; 0 means the slot is empty
+        final int[] table = new int[mask + 1];
+
+        long key;
+        int slot;
+        int other;
+
+        for (int i = 0; i < size; i++) {
+            key = keys[i];
+            slot = (int) mix(key) & mask;
+            while ((other = table[slot]) != 0) {
+                other--;
+                if (keys[other] == key
+                    && (exact || array.get(other).equals(array.get(i))))
+                    return new int[] { other, i };
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+
+        return null;
+    }
+
+    /**
+     * Key of a double value
+     *
+     * <p>{@link DoubleNode} compares values with {@code ==}, so 0.0 and -0.0
+     * must have the same key.</p>
+     *
+     * @param d the value
+     * @return the key
+     */
+    private static long doubleKey(final double d)
+    {
+        return d == 0.0 ? 0L : Double.doubleToLongBits(d);
+    }
+
+    /**
+     * Mix the bits of a 64 bit value (MurmurHash3 finalizer)
+     *
+     * @param value the value
+     * @return the mixed value
+     */
+    private static long mix(final long value)
+    {
+        long ret = value;
+
+        ret ^= ret >>> 33;
+        ret *= 0xff51afd7ed558ccdL;
+        ret ^= ret >>> 33;
+        ret *= 0xc4ceb9fe1a85ec53L;
+        ret ^= ret >>> 33;
+
+        return ret;
+    }
+}
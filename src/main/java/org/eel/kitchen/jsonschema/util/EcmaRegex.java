@@ -0,0 +1,631 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A compiled ECMA 262 regex
+ *
+ * <p>As explained in {@link RhinoHelper}, {@link java.util.regex} does not
+ * obey ECMA 262. However, most regexes found in schemas only use constructs
+ * whose ECMA 262 semantics can be expressed with {@link java.util.regex}:
+ * these regexes are translated once to a {@link Pattern}, and matching them
+ * never enters Rhino. The translation is conservative: any construct whose
+ * semantics differ in a way which cannot be emulated (backreferences, octal
+ * escapes, braces which are not quantifiers, etc) makes the regex fall back
+ * to a {@code RegExp} object compiled once by Rhino.</p>
+ *
+ * <p>The translation handles the following differences:</p>
+ *
+ * <ul>
+ *     <li>{@code .} does not match line terminators, but matches {@code
+ *     \u0085};</li>
+ *     <li>{@code $} only matches at the end of input;</li>
+ *     <li>{@code \s} includes Unicode space separators, no-break spaces and
+ *     the byte order mark;</li>
+ *     <li>{@code \b} and {@code \B} are defined relative to {@code \w};</li>
+ *     <li>{@code \v}, {@code \0} and {@code \cX} are single characters;</li>
+ *     <li>{@code []} matches nothing and {@code [^]} matches anything;</li>
+ *     <li>{@code [} and {@code &} have no special meaning in a character
+ *     class.</li>
+ * </ul>
+ *
+ * <p>Finally, ECMA 262 regexes operate on UTF-16 code units, not code points:
+ * inputs containing surrogates are always matched using Rhino.</p>
+ *
+ * <p>Instances are obtained using {@link #compile(String)}, which caches them.
+ * They are immutable and thread safe.</p>
+ */
+public final class EcmaRegex
+{
+    /**
+     * Maximum number of cached regexes
+     */
+    private static final long MAX_CACHED_REGEXES = 1000L;
+
+    private static final LoadingCache<String, EcmaRegex> CACHE
+        = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_REGEXES)
+            .build(new CacheLoader<String, EcmaRegex>()
+            {
+                @Override
+                public EcmaRegex load(final String key)
+                {
+                    return new EcmaRegex(key);
+                }
+            });
+
+    /**
+     * ECMA 262 white space and line terminators, as character class contents
+     */
+    private static final String SPACE
+        = "\\t\\n\\x0B\\f\\r\\u00a0\\u2028\\u2029\\ufeff\\p{Zs}";
+
+    /**
+     * ECMA 262 {@code .}
+     */
+    private static final String DOT = "[^\\n\\r\\u2028\\u2029]";
+
+    private static final String WORD_BOUNDARY
+        = "(?:(?<=\\w)(?!\\w)|(?<!\\w)(?=\\w))";
+
+    private static final String NOT_WORD_BOUNDARY
+        = "(?:(?<=\\w)(?=\\w)|(?<!\\w)(?!\\w))";
+
+    private final String regex;
+
+    /**
+     * The translated pattern, {@code null} if the regex could not be
+     * translated
+     */
+    private final Pattern pattern;
+
+    /**
+     * The Rhino {@code RegExp} object, {@code null} until needed
+     */
+    private volatile Object rhinoRegex;
+
+    private EcmaRegex(final String regex)
+    {
+        this.regex = regex;
+        pattern = toPattern(regex);
+    }
+
+    /**
+     * Return a compiled regex
+     *
+     * <p>The regex MUST have been validated at this point (using {@link
+     * RhinoHelper#regexIsValid(String)}).</p>
+     *
+     * @param regex the regex
+     * @return the compiled regex
+     */
+    public static EcmaRegex compile(final String regex)
+    {
+        Preconditions.checkNotNull(regex, "regex must not be null");
+        return CACHE.getUnchecked(regex);
+    }
+
+    /**
+     * Match an input against this regex
+     *
+     * <p>Like with {@link RhinoHelper#regMatch(String, String)}, the regex can
+     * match anywhere in the input.</p>
+     *
+     * @param input the input
+     * @return true if the regex matches the input
+     */
+    public boolean matches(final String input)
+    {
+        if (pattern != null && !hasSurrogates(input))
+            return pattern.matcher(input).find();
+
+        Object compiled = rhinoRegex;
+
+        if (compiled == null) {
+            compiled = RhinoHelper.compile(regex);
+            rhinoRegex = compiled;
+        }
+
+        return RhinoHelper.test(compiled, input);
+    }
+
+    /**
+     * Match an input against this regex, with a bounded cost
+     *
+     * <p>The cost of a match is measured as the number of times the regex
+     * engine reads a character from the input: a backtracking regex reads the
+     * same characters again and again. When this number exceeds the budget,
+     * matching is abandoned.</p>
+     *
+     * <p>Only regexes translated to {@link Pattern}s (see {@link
+     * #isTranslated()}) can be matched with a budget, and only against inputs
+     * without surrogates: Rhino offers no means to interrupt a regex match.
+     * In other cases, matching fails closed: if a budget is set, it is
+     * considered exceeded without even trying. See {@link RegexAnalyzer} to
+     * detect dangerous regexes beforehand.</p>
+     *
+     * @param input the input
+     * @param budget the budget, 0 for no limit
+     * @return true if the regex matches the input
+     * @throws RegexBudgetExceededException the budget has been exceeded
+     */
+    public boolean matches(final String input, final long budget)
+    {
+        if (budget <= 0L)
+            return matches(input);
+
+        if (pattern == null || hasSurrogates(input))
+            throw new RegexBudgetExceededException(regex, budget);
+
+        return pattern.matcher(new BudgetedInput(input, budget)).find();
+    }
+
+    /**
+     * Tell whether this regex is matched without entering Rhino
+     *
+     * @return true if the regex was translated to a {@link Pattern}
+     */
+    public boolean isTranslated()
+    {
+        return pattern != null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return regex;
+    }
+
+    private static boolean hasSurrogates(final String input)
+    {
+        final int len = input.length();
+
+        for (int i = 0; i < len; i++)
+            if (isSurrogate(input.charAt(i)))
+                return true;
+
+        return false;
+    }
+
+    private static boolean isSurrogate(final char c)
+    {
+        return c >= '\uD800' && c <= '\uDFFF';
+    }
+
+    private static Pattern toPattern(final String regex)
+    {
+        final String translated = translate(regex);
+
+        if (translated == null)
+            return null;
+
+        try {
+            return Pattern.compile(translated);
+        } catch (PatternSyntaxException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Translate an ECMA 262 regex to a {@link Pattern} regex
+     *
+     * @param regex the regex
+     * @return the translated regex, or {@code null} if it cannot be translated
+     */
+    @VisibleForTesting
+    static String translate(final String regex)
+    {
+        return new Translator(regex).translate();
+    }
+
+    /**
+     * An input which counts the characters read from it
+     */
+    private final class BudgetedInput
+        implements CharSequence
+    {
+        private final String input;
+        private final long budget;
+        private long steps = 0L;
+
+        private BudgetedInput(final String input, final long budget)
+        {
+            this.input = input;
+            this.budget = budget;
+        }
+
+        @Override
+        public int length()
+        {
+            return input.length();
+        }
+
+        @Override
+        public char charAt(final int index)
+        {
+            if (++steps > budget)
+                throw new RegexBudgetExceededException(regex, budget);
+            return input.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end)
+        {
+            return input.subSequence(start, end);
+        }
+
+        @Override
+        public String toString()
+        {
+            return input;
+        }
+    }
+
+    private static final class Translator
+    {
+        private final String regex;
+        private final int len;
+        private final StringBuilder sb;
+        private int index = 0;
+
+        /**
+         * Whether the last element read is a quantifier, and can therefore
+         * only be followed by a {@code ?} (lazy quantifier)
+         */
+        private boolean afterQuantifier = false;
+
+        private Translator(final String regex)
+        {
+            this.regex = regex;
+            len = regex.length();
+            sb = new StringBuilder(len + 16);
+        }
+
+        private String translate()
+        {
+            char c;
+
+            while (index < len) {
+                c = regex.charAt(index++);
+                if (isSurrogate(c))
+                    return null;
+                if (isQuantifier(c)) {
+                    if (!quantifier(c))
+                        return null;
+                    continue;
+                }
+                afterQuantifier = false;
+                switch (c) {
+                    case '\\':
+                        if (!escape())
+                            return null;
+                        break;
+                    case '.':
+                        sb.append(DOT);
+                        break;
+                    case '$':
+                        sb.append("\\z");
+                        break;
+                    case '[':
+                        if (!characterClass())
+                            return null;
+                        break;
+                    case '(':
+                        if (!group())
+                            return null;
+                        break;
+                    default:
+                        sb.append(c);
+                }
+            }
+
+            return sb.toString();
+        }
+
+        private static boolean isQuantifier(final char c)
+        {
+            return c == '*' || c == '+' || c == '?' || c == '{';
+        }
+
+        private boolean quantifier(final char c)
+        {
+            if (afterQuantifier) {
+                if (c != '?')
+                    return false;
+                sb.append(c);
+                afterQuantifier = false;
+                return true;
+            }
+
+            afterQuantifier = true;
+
+            if (c != '{') {
+                sb.append(c);
+                return true;
+            }
+
+            /*
+             * Only {n}, {n,} and {n,m} are quantifiers; otherwise, ECMA 262
+             * implementations treat the brace literally
+             */
+            final int start = index - 1;
+            if (skipDigits() == 0)
+                return false;
+
+            if (index < len && regex.charAt(index) == ',') {
+                index++;
+                skipDigits();
+            }
+
+            if (index >= len || regex.charAt(index) != '}')
+                return false;
+
+            index++;
+            sb.append(regex, start, index);
+            return true;
+        }
+
+        private int skipDigits()
+        {
+            final int start = index;
+
+            while (index < len && isDigit(regex.charAt(index)))
+                index++;
+
+            return index - start;
+        }
+
+        private boolean group()
+        {
+            sb.append('(');
+
+            if (index >= len || regex.charAt(index) != '?')
+                return true;
+
+            if (index + 1 >= len)
+                return false;
+
+            final char c = regex.charAt(index + 1);
+
+            if (c != ':' && c != '=' && c != '!')
+                return false;
+
+            sb.append('?').append(c);
+            index += 2;
+            return true;
+        }
+
+        private boolean escape()
+        {
+            if (index >= len)
+                return false;
+
+            final char c = regex.charAt(index++);
+
+            switch (c) {
+                case 'd': case 'D': case 'w': case 'W':
+                case 'f': case 'n': case 'r': case 't':
+                    sb.append('\\').append(c);
+                    return true;
+                case 's':
+                    sb.append('[').append(SPACE).append(']');
+                    return true;
+                case 'S':
+                    sb.append("[^").append(SPACE).append(']');
+                    return true;
+                case 'b':
+                    sb.append(WORD_BOUNDARY);
+                    return true;
+                case 'B':
+                    sb.append(NOT_WORD_BOUNDARY);
+                    return true;
+                default:
+                    final int ch = singleCharEscape(c);
+                    if (ch < 0)
+                        return false;
+                    appendChar(ch);
+                    return true;
+            }
+        }
+
+        /**
+         * Read the rest of an escape denoting a single character
+         *
+         * @param c the character after the backslash
+         * @return the character, or -1 if not translatable
+         */
+        private int singleCharEscape(final char c)
+        {
+            switch (c) {
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'v':
+                    return 0x0b;
+                case '0':
+                    if (index < len && isDigit(regex.charAt(index)))
+                        return -1;
+                    return 0;
+                case 'c':
+                    if (index >= len || !isAsciiLetter(regex.charAt(index)))
+                        return -1;
+                    return regex.charAt(index++) % 32;
+                case 'x':
+                    return hex(2);
+                case 'u':
+                    return hex(4);
+                default:
+                    if (Character.isLetterOrDigit(c) || c == '_'
+                        || isSurrogate(c))
+                        return -1;
+                    return c;
+            }
+        }
+
+        private int hex(final int digits)
+        {
+            if (index + digits > len)
+                return -1;
+
+            int ret = 0;
+            int value;
+
+            for (int i = 0; i < digits; i++) {
+                value = Character.digit(regex.charAt(index + i), 16);
+                if (value < 0)
+                    return -1;
+                ret = ret * 16 + value;
+            }
+
+            index += digits;
+            return isSurrogate((char) ret) ? -1 : ret;
+        }
+
+        /**
+         * Translate a character class
+         *
+         * <p>All characters are emitted as {@code \\uXXXX} escapes, so that
+         * characters special to {@link Pattern} ({@code [}, {@code &}, etc)
+         * lose their meaning.</p>
+         */
+        private boolean characterClass()
+        {
+            boolean negated = false;
+
+            if (index < len && regex.charAt(index) == '^') {
+                negated = true;
+                index++;
+            }
+
+            if (index < len && regex.charAt(index) == ']') {
+                index++;
+                sb.append(negated ? "[\\s\\S]" : "(?!)");
+                return true;
+            }
+
+            sb.append(negated ? "[^" : "[");
+
+            char c;
+            int low, high;
+
+            while (true) {
+                if (index >= len)
+                    return false;
+                c = regex.charAt(index++);
+                if (c == ']')
+                    break;
+                low = classAtom(c, negated);
+                if (low == -1)
+                    return false;
+                if (index + 1 >= len || regex.charAt(index) != '-'
+                    || regex.charAt(index + 1) == ']') {
+                    if (low >= 0)
+                        appendChar(low);
+                    continue;
+                }
+                /*
+                 * A range: both ends must be single characters
+                 */
+                if (low < 0)
+                    return false;
+                index++;
+                high = classAtom(regex.charAt(index++), negated);
+                if (high < low)
+                    return false;
+                appendChar(low);
+                sb.append('-');
+                appendChar(high);
+            }
+
+            sb.append(']');
+            return true;
+        }
+
+        /**
+         * Read an element of a character class
+         *
+         * @param c the first character of the element
+         * @param negated whether the class is negated
+         * @return the character, -2 if this is a class escape (which has
+         * been appended), -1 if not translatable
+         */
+        private int classAtom(final char c, final boolean negated)
+        {
+            if (isSurrogate(c))
+                return -1;
+
+            if (c != '\\')
+                return c;
+
+            if (index >= len)
+                return -1;
+
+            final char escaped = regex.charAt(index++);
+
+            switch (escaped) {
+                case 'd': case 'D': case 'w': case 'W':
+                    sb.append('\\').append(escaped);
+                    return -2;
+                case 's':
+                    sb.append(SPACE);
+                    return -2;
+                case 'S':
+                    /*
+                     * Nested classes do not behave as expected in negated
+                     * classes
+                     */
+                    if (negated)
+                        return -1;
+                    sb.append("[^").append(SPACE).append(']');
+                    return -2;
+                case 'b':
+                    return '\b';
+                default:
+                    return singleCharEscape(escaped);
+            }
+        }
+
+        private void appendChar(final int c)
+        {
+            sb.append(String.format("\\u%04x", c));
+        }
+
+        private static boolean isDigit(final char c)
+        {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isAsciiLetter(final char c)
+        {
+            return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+        }
+    }
+}
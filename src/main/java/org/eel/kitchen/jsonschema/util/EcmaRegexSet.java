@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A set of ECMA 262 regexes matched together against a same input
+ *
+ * <p>This class answers the question "which regexes of the set match this
+ * input", typically for property names against the regexes of {@code
+ * patternProperties}. Regexes are not all tried in turn:</p>
+ *
+ * <ul>
+ *     <li>regexes of the form {@code ^literal$} are looked up in a hash
+ *     table;</li>
+ *     <li>regexes anchored with a literal prefix ({@code ^literal...}) are
+ *     indexed by the first character of that prefix, and only tried if the
+ *     input starts with the prefix;</li>
+ *     <li>all other regexes are tried in turn.</li>
+ * </ul>
+ *
+ * <p>Results are memoized per input. Sets for {@code patternProperties} are
+ * obtained using {@link #forPatternProperties(JsonNode)}, so that all users
+ * of a same schema share the same set, and therefore the same results.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+public final class EcmaRegexSet
+{
+    /**
+     * Maximum number of memoized inputs, per set
+     */
+    private static final long MAX_MEMOIZED_INPUTS = 1000L;
+
+    private static final int[] NO_MATCH = new int[0];
+
+    /**
+     * Sets by {@code patternProperties} node
+     *
+     * <p>Keys are weak, and therefore compared by identity: a set is shared
+     * by all users of a same schema node, and is collected with it.</p>
+     */
+    private static final LoadingCache<JsonNode, EcmaRegexSet> SETS
+        = CacheBuilder.newBuilder().weakKeys()
+            .build(new CacheLoader<JsonNode, EcmaRegexSet>()
+            {
+                @Override
+                public EcmaRegexSet load(final JsonNode key)
+                {
+                    return new EcmaRegexSet(Lists.newArrayList(
+                        key.fieldNames()));
+                }
+            });
+
+    private final List<String> regexes;
+
+    /**
+     * Indexes of regexes matching literal inputs, by input
+     */
+    private final Map<String, Integer> exact = Maps.newHashMap();
+
+    /**
+     * Literal prefixes of anchored regexes, by index ({@code null} if the
+     * regex has no literal prefix, or is exact)
+     */
+    private final String[] prefixes;
+
+    /**
+     * Indexes of anchored regexes, by first character of their prefix
+     */
+    private final Map<Character, int[]> byFirstChar = Maps.newHashMap();
+
+    /**
+     * Indexes of regexes which must always be tried
+     */
+    private final int[] others;
+
+    private final EcmaRegex[] compiled;
+
+    private final Cache<String, int[]> memo
+        = CacheBuilder.newBuilder().maximumSize(MAX_MEMOIZED_INPUTS).build();
+
+    @VisibleForTesting
+    EcmaRegexSet(final List<String> regexes)
+    {
+        this.regexes = ImmutableList.copyOf(regexes);
+
+        final int size = regexes.size();
+        final Map<Character, List<Integer>> map = Maps.newHashMap();
+        final List<Integer> list = Lists.newArrayList();
+
+        prefixes = new String[size];
+        compiled = new EcmaRegex[size];
+
+        String regex, prefix;
+        List<Integer> indexes;
+
+        for (int i = 0; i < size; i++) {
+            regex = regexes.get(i);
+            compiled[i] = EcmaRegex.compile(regex);
+            prefix = literalPrefix(regex);
+            if (prefix == null) {
+                list.add(i);
+                continue;
+            }
+            if (regex.length() == prefix.length() + 2
+                && regex.endsWith("$")) {
+                exact.put(prefix, i);
+                continue;
+            }
+            prefixes[i] = prefix;
+            indexes = map.get(prefix.charAt(0));
+            if (indexes == null) {
+                indexes = Lists.newArrayList();
+                map.put(prefix.charAt(0), indexes);
+            }
+            indexes.add(i);
+        }
+
+        others = Ints.toArray(list);
+
+        for (final Map.Entry<Character, List<Integer>> entry: map.entrySet())
+            byFirstChar.put(entry.getKey(), Ints.toArray(entry.getValue()));
+    }
+
+    /**
+     * Return the set of regexes of a {@code patternProperties} node
+     *
+     * <p>The order of regexes in the set is the order of the members of the
+     * node.</p>
+     *
+     * @param patternProperties the node
+     * @return the set
+     */
+    public static EcmaRegexSet forPatternProperties(
+        final JsonNode patternProperties)
+    {
+        return SETS.getUnchecked(patternProperties);
+    }
+
+    /**
+     * Return the regexes of this set, in order
+     *
+     * @return an immutable list of regexes
+     */
+    public List<String> getRegexes()
+    {
+        return regexes;
+    }
+
+    /**
+     * Return the indexes of all regexes matching an input
+     *
+     * @param input the input
+     * @return the indexes, in ascending order; do not modify this array
+     */
+    public int[] getMatches(final String input)
+    {
+        return getMatches(input, 0L);
+    }
+
+    /**
+     * Return the indexes of all regexes matching an input, with a bounded
+     * cost
+     *
+     * <p>The budget applies to each regex match (see {@link
+     * EcmaRegex#matches(String, long)}). Inputs for which the budget is
+     * exceeded are not memoized.</p>
+     *
+     * @param input the input
+     * @param budget the budget, 0 for no limit
+     * @return the indexes, in ascending order; do not modify this array
+     * @throws RegexBudgetExceededException the budget has been exceeded
+     */
+    public int[] getMatches(final String input, final long budget)
+    {
+        try {
+            return memo.get(input, new Callable<int[]>()
+            {
+                @Override
+                public int[] call()
+                {
+                    return computeMatches(input, budget);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Tell whether at least one regex of this set matches an input
+     *
+     * @param input the input
+     * @return true if one regex matches
+     */
+    public boolean matchesAny(final String input)
+    {
+        return getMatches(input).length != 0;
+    }
+
+    /**
+     * Tell whether at least one regex of this set matches an input, with a
+     * bounded cost
+     *
+     * @see #getMatches(String, long)
+     *
+     * @param input the input
+     * @param budget the budget, 0 for no limit
+     * @return true if one regex matches
+     * @throws RegexBudgetExceededException the budget has been exceeded
+     */
+    public boolean matchesAny(final String input, final long budget)
+    {
+        return getMatches(input, budget).length != 0;
+    }
+
+    private int[] computeMatches(final String input, final long budget)
+    {
+        final BitSet matches = new BitSet(regexes.size());
+
+        final Integer index = exact.get(input);
+        if (index != null)
+            matches.set(index);
+
+        if (!input.isEmpty()) {
+            final int[] candidates = byFirstChar.get(input.charAt(0));
+            if (candidates != null)
+                for (final int candidate: candidates)
+                    if (input.startsWith(prefixes[candidate])
+                        && compiled[candidate].matches(input, budget))
+                        matches.set(candidate);
+        }
+
+        for (final int other: others)
+            if (compiled[other].matches(input, budget))
+                matches.set(other);
+
+        if (matches.isEmpty())
+            return NO_MATCH;
+
+        final int[] ret = new int[matches.cardinality()];
+        int i = 0;
+
+        for (int bit = matches.nextSetBit(0); bit >= 0;
+            bit = matches.nextSetBit(bit + 1))
+            ret[i++] = bit;
+
+        return ret;
+    }
+
+    /**
+     * Extract the literal prefix of an anchored regex
+     *
+     * <p>The prefix is made of the characters following the initial {@code ^}
+     * until the first character special to ECMA 262 regexes; a character
+     * followed by a quantifier is not part of the prefix. Regexes containing
+     * an alternation have no prefix.</p>
+     *
+     * @param regex the regex
+     * @return the prefix, or {@code null} if the regex has no prefix
+     */
+    @VisibleForTesting
+    static String literalPrefix(final String regex)
+    {
+        if (!regex.startsWith("^") || regex.indexOf('|') != -1)
+            return null;
+
+        final int len = regex.length();
+        int end = 1;
+
+        while (end < len && !isSpecial(regex.charAt(end)))
+            end++;
+
+        if (end < len && isQuantifier(regex.charAt(end)))
+            end--;
+
+        return end <= 1 ? null : regex.substring(1, end);
+    }
+
+    private static boolean isSpecial(final char c)
+    {
+        return "\\^$.|?*+()[]{}".indexOf(c) != -1;
+    }
+
+    private static boolean isQuantifier(final char c)
+    {
+        return c == '?' || c == '*' || c == '+' || c == '{';
+    }
+
+    @Override
+    public String toString()
+    {
+        return regexes.toString();
+    }
+}
@@ -17,10 +17,12 @@
 
 package org.eel.kitchen.jsonschema.util;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -161,6 +163,61 @@ public final class JsonLoader
         return mapper.readTree(reader);
     }
 
+    /**
+     * Create a {@link JsonParser} over an input stream
+     *
+     * <p>The parser is created with the same configuration as the mapper used
+     * to read all other documents. It may be used to read several consecutive
+     * root values (see {@link #fromParser(JsonParser)}).</p>
+     *
+     * @param in the input stream
+     * @return a new parser
+     * @throws IOException failed to create the parser
+     */
+    public static JsonParser newParser(final InputStream in)
+        throws IOException
+    {
+        return mapper.getJsonFactory().createJsonParser(in);
+    }
+
+    /**
+     * Create a {@link JsonParser} over a reader
+     *
+     * @see #newParser(InputStream)
+     *
+     * @param reader the reader
+     * @return a new parser
+     * @throws IOException failed to create the parser
+     */
+    public static JsonParser newParser(final Reader reader)
+        throws IOException
+    {
+        return mapper.getJsonFactory().createJsonParser(reader);
+    }
+
+    /**
+     * Read a {@link JsonNode} from a user supplied {@link JsonParser}
+     *
+     * <p>The value read is the one starting at the parser's current token (or
+     * at the next token if there is no current token). When this method
+     * returns, the parser's current token is the last token of that
+     * value.</p>
+     *
+     * @param parser the parser
+     * @return the document
+     * @throws IOException the parser has problems, or there is no value
+     */
+    public static JsonNode fromParser(final JsonParser parser)
+        throws IOException
+    {
+        final JsonNode ret = mapper.readTree(parser);
+
+        if (ret == null)
+            throw new EOFException("no JSON value to read");
+
+        return ret;
+    }
+
     /**
      * Read a {@link JsonNode} from a string input
      *
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import com.google.common.base.Preconditions;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An {@link InputStream} over a memory-mapped file
+ *
+ * <p>The file is mapped in read-only windows of {@link #WINDOW_SIZE} bytes
+ * (a single mapping cannot exceed 2 GB), one window at a time. Reading from
+ * this stream copies bytes from the mapped window directly into the caller's
+ * buffer: there is no intermediate buffer, and the file contents are never
+ * held on the heap as a whole.</p>
+ *
+ * <p>An optional {@link ProgressListener} is called every {@link
+ * #PROGRESS_STEP} bytes, and when the last byte of the file has been read.
+ * </p>
+ *
+ * <p>This class is not thread safe.</p>
+ */
+public final class MappedFileInputStream
+    extends InputStream
+{
+    /**
+     * Size of a mapped window
+     */
+    public static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Number of bytes between two progress notifications
+     */
+    public static final long PROGRESS_STEP = 8L * 1024L * 1024L;
+
+    private final FileInputStream in;
+    private final FileChannel channel;
+    private final long size;
+    private final ProgressListener listener;
+
+    /**
+     * The current window, {@code null} if none is mapped
+     */
+    private MappedByteBuffer window;
+
+    /**
+     * Offset in the file of the start of the current window
+     */
+    private long windowStart;
+
+    /**
+     * Offset in the file at which progress was last reported
+     */
+    private long lastReported;
+
+    public MappedFileInputStream(final File file)
+        throws IOException
+    {
+        this(file, null);
+    }
+
+    public MappedFileInputStream(final File file,
+        final ProgressListener listener)
+        throws IOException
+    {
+        Preconditions.checkNotNull(file, "file must not be null");
+        in = new FileInputStream(file);
+        channel = in.getChannel();
+        size = channel.size();
+        this.listener = listener;
+    }
+
+    /**
+     * Return the current position in the file
+     *
+     * @return the number of bytes read so far
+     */
+    public long getPosition()
+    {
+        return window == null ? windowStart : windowStart + window.position();
+    }
+
+    @Override
+    public int read()
+        throws IOException
+    {
+        if (!fill())
+            return -1;
+
+        final int ret = window.get() & 0xff;
+        progress();
+        return ret;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len)
+        throws IOException
+    {
+        Preconditions.checkPositionIndexes(off, off + len, b.length);
+
+        if (len == 0)
+            return 0;
+
+        if (!fill())
+            return -1;
+
+        final int ret = Math.min(len, window.remaining());
+        window.get(b, off, ret);
+        progress();
+        return ret;
+    }
+
+    @Override
+    public long skip(final long n)
+        throws IOException
+    {
+        if (n <= 0L || !fill())
+            return 0L;
+
+        final int ret = (int) Math.min(n, window.remaining());
+        window.position(window.position() + ret);
+        progress();
+        return ret;
+    }
+
+    @Override
+    public int available()
+        throws IOException
+    {
+        return (int) Math.min(size - getPosition(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        window = null;
+        in.close();
+    }
+
+    /**
+     * Make sure there are bytes to read in the current window
+     *
+     * @return false if the end of the file has been reached
+     * @throws IOException cannot map the next window
+     */
+    private boolean fill()
+        throws IOException
+    {
+        if (window != null && window.hasRemaining())
+            return true;
+
+        final long start = getPosition();
+
+        if (start >= size)
+            return false;
+
+        final long length = Math.min(WINDOW_SIZE, size - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+        return true;
+    }
+
+    private void progress()
+    {
+        if (listener == null)
+            return;
+
+        final long position = getPosition();
+
+        if (position - lastReported < PROGRESS_STEP && position != size)
+            return;
+
+        if (position == lastReported)
+            return;
+
+        lastReported = position;
+        listener.onProgress(position, size);
+    }
+}
@@ -120,6 +120,17 @@ public enum NodeType
         return nameMap.get(name);
     }
 
+    /**
+     * Given a {@link JsonToken}, return the type of the value it starts
+     *
+     * @param token the token
+     * @return the node type, or null if this token does not start a value
+     */
+    public static NodeType fromToken(final JsonToken token)
+    {
+        return reverseMap.get(token);
+    }
+
     /**
      * Given a {@link JsonNode} as an argument, return its type. The argument
      * MUST NOT BE NULL, and MUST NOT be a {@link MissingNode}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Static analysis of ECMA 262 regexes for catastrophic backtracking
+ *
+ * <p>Backtracking regex engines (both Rhino's and {@link java.util.regex}'s)
+ * can take exponential time to fail matching some regexes. This class detects
+ * the two structures responsible for most such cases:</p>
+ *
+ * <ul>
+ *     <li>nested quantifiers: a repeated group containing an unbounded
+ *     quantifier, as in {@code (a+)+} or {@code (\w+\s?)*};</li>
+ *     <li>overlapping alternatives in a repeated group: alternatives starting
+ *     with the same literal character, as in {@code (a|ab)*}.</li>
+ * </ul>
+ *
+ * <p>This is a heuristic: it may flag harmless regexes, and it does not
+ * detect all dangerous ones. To bound matching time, see {@link
+ * EcmaRegex#matches(String, long)}.</p>
+ */
+public final class RegexAnalyzer
+{
+    private RegexAnalyzer()
+    {
+    }
+
+    /**
+     * Tell whether a regex is prone to catastrophic backtracking
+     *
+     * <p>The regex MUST have been validated at this point (using {@link
+     * RhinoHelper#regexIsValid(String)}).</p>
+     *
+     * @param regex the regex
+     * @return true if the regex has a dangerous structure
+     */
+    public static boolean isBacktrackingProne(final String regex)
+    {
+        final List<Group> stack = Lists.newArrayList();
+        final int len = regex.length();
+
+        Group group = new Group();
+        Group closed;
+        char c;
+        int index = 0;
+        int quantifierEnd;
+
+        while (index < len) {
+            c = regex.charAt(index++);
+            switch (c) {
+                case '\\':
+                    group.atom(null);
+                    index++;
+                    break;
+                case '[':
+                    group.atom(null);
+                    index = skipClass(regex, index);
+                    break;
+                case '(':
+                    if (index < len && regex.charAt(index) == '?')
+                        index += 2;
+                    stack.add(group);
+                    group = new Group();
+                    break;
+                case ')':
+                    if (stack.isEmpty())
+                        return false;
+                    closed = group;
+                    group = stack.remove(stack.size() - 1);
+                    group.atom(null);
+                    quantifierEnd = quantifier(regex, index);
+                    if (quantifierEnd != index) {
+                        if (repeats(regex, index, quantifierEnd)
+                            && (closed.unbounded || closed.overlapping))
+                            return true;
+                        if (unbounded(regex, index, quantifierEnd))
+                            group.unbounded = true;
+                        index = quantifierEnd;
+                    }
+                    group.unbounded |= closed.unbounded;
+                    break;
+                case '|':
+                    group.alternative();
+                    break;
+                case '^': case '$':
+                    break;
+                default:
+                    group.atom(c == '.' ? null : c);
+            }
+            quantifierEnd = quantifier(regex, index);
+            if (quantifierEnd != index && c != ')') {
+                if (unbounded(regex, index, quantifierEnd))
+                    group.unbounded = true;
+                index = quantifierEnd;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Return the end of the quantifier at a given index, if any
+     *
+     * @return the end index, or {@code index} if there is no quantifier
+     */
+    private static int quantifier(final String regex, final int index)
+    {
+        final int len = regex.length();
+
+        if (index >= len)
+            return index;
+
+        int ret = index;
+
+        switch (regex.charAt(index)) {
+            case '*': case '+': case '?':
+                ret++;
+                break;
+            case '{':
+                final int close = regex.indexOf('}', index);
+                if (close == -1 || !regex.substring(index + 1, close)
+                    .matches("\\d{1,9}(,\\d{0,9})?"))
+                    return index;
+                ret = close + 1;
+                break;
+            default:
+                return index;
+        }
+
+        if (ret < len && regex.charAt(ret) == '?')
+            ret++;
+
+        return ret;
+    }
+
+    private static boolean unbounded(final String regex, final int start,
+        final int end)
+    {
+        return maxRepetitions(regex.substring(start, end)) == -1;
+    }
+
+    private static boolean repeats(final String regex, final int start,
+        final int end)
+    {
+        final long max = maxRepetitions(regex.substring(start, end));
+        return max == -1 || max > 1;
+    }
+
+    /**
+     * Return the maximum number of repetitions allowed by a quantifier
+     *
+     * @param quantifier the quantifier
+     * @return the number of repetitions, or -1 if unbounded
+     */
+    private static long maxRepetitions(final String quantifier)
+    {
+        switch (quantifier.charAt(0)) {
+            case '*': case '+':
+                return -1;
+            case '?':
+                return 1;
+            default:
+        }
+
+        final int close = quantifier.indexOf('}');
+        final String bounds = quantifier.substring(1, close);
+        final int comma = bounds.indexOf(',');
+
+        if (comma == -1)
+            return Long.parseLong(bounds);
+
+        return comma == bounds.length() - 1 ? -1
+            : Long.parseLong(bounds.substring(comma + 1));
+    }
+
+    private static int skipClass(final String regex, final int start)
+    {
+        final int len = regex.length();
+        int index = start;
+        char c;
+
+        while (index < len) {
+            c = regex.charAt(index++);
+            if (c == '\\')
+                index++;
+            else if (c == ']')
+                return index;
+        }
+
+        return index;
+    }
+
+    private static final class Group
+    {
+        private boolean unbounded = false;
+        private boolean overlapping = false;
+        private final Set<Character> firstChars = Sets.newHashSet();
+        private boolean atStart = true;
+
+        private void atom(final Character c)
+        {
+            if (atStart && c != null && !firstChars.add(c))
+                overlapping = true;
+            atStart = false;
+        }
+
+        private void alternative()
+        {
+            atStart = true;
+        }
+    }
+}
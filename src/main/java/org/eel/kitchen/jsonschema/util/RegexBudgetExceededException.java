@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+/**
+ * Exception thrown when matching a regex exceeds its budget
+ *
+ * @see EcmaRegex#matches(String, long)
+ */
+public final class RegexBudgetExceededException
+    extends RuntimeException
+{
+    private final String regex;
+    private final long budget;
+
+    public RegexBudgetExceededException(final String regex, final long budget)
+    {
+        super("regex " + regex + " exceeded its budget of " + budget
+            + " steps");
+        this.regex = regex;
+        this.budget = budget;
+    }
+
+    public String getRegex()
+    {
+        return regex;
+    }
+
+    public long getBudget()
+    {
+        return budget;
+    }
+}
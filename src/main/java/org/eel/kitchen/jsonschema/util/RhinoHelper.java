@@ -45,8 +45,8 @@ import java.util.regex.Pattern;
 public final class RhinoHelper
 {
     /**
-     * JavaScript scriptlet defining functions {@link #regexIsValid}
-     * and {@link #regMatch}
+     * JavaScript scriptlet defining functions {@link #regexIsValid},
+     * {@link #regMatch}, {@link #compile} and {@link #test}
      */
     private static final String jsAsString
         = "function regexIsValid(re)"
@@ -62,6 +62,16 @@ public final class RhinoHelper
         + "function regMatch(re, input)"
         + '{'
         + "    return new RegExp(re).test(input);"
+        + '}'
+        + ""
+        + "function regCompile(re)"
+        + '{'
+        + "    return new RegExp(re);"
+        + '}'
+        + ""
+        + "function regTest(re, input)"
+        + '{'
+        + "    return re.test(input);"
         + '}';
 
     /**
@@ -84,6 +94,16 @@ public final class RhinoHelper
      */
     private static final Function regMatch;
 
+    /**
+     * Reference to Javascript function for regex compilation
+     */
+    private static final Function regCompile;
+
+    /**
+     * Reference to Javascript function for compiled regex matching
+     */
+    private static final Function regTest;
+
     private RhinoHelper()
     {
     }
@@ -94,6 +114,8 @@ public final class RhinoHelper
         ctx.evaluateString(sharedScope, jsAsString, "re", 1, null);
         regexIsValid = (Function) sharedScope.get("regexIsValid", sharedScope);
         regMatch = (Function) sharedScope.get("regMatch", sharedScope);
+        regCompile = (Function) sharedScope.get("regCompile", sharedScope);
+        regTest = (Function) sharedScope.get("regTest", sharedScope);
         ctx.seal(null);
     }
 
@@ -146,4 +168,48 @@ public final class RhinoHelper
         }
 
     }
+
+    /**
+     * Compile a regex to a JavaScript {@code RegExp} object
+     *
+     * <p>The regex MUST have been validated at this point. The returned object
+     * is meant to be used with {@link #test(Object, String)}.</p>
+     *
+     * @param regex the regex
+     * @return the compiled regex
+     */
+    static Object compile(final String regex)
+    {
+        final Context context = Context.enter();
+        try {
+            final Scriptable scope = context.newObject(sharedScope);
+            scope.setPrototype(sharedScope);
+            scope.setParentScope(null);
+            return regCompile.call(context, scope, scope,
+                new Object[]{ regex });
+        } finally {
+            Context.exit();
+        }
+    }
+
+    /**
+     * Matches an input against a regex compiled with {@link #compile(String)}
+     *
+     * @param compiled the compiled regex
+     * @param input the input
+     * @return true if the regex matches the input
+     */
+    static boolean test(final Object compiled, final String input)
+    {
+        final Context context = Context.enter();
+        try {
+            final Scriptable scope = context.newObject(sharedScope);
+            scope.setPrototype(sharedScope);
+            scope.setParentScope(null);
+            return (Boolean) regTest.call(context, scope, scope,
+                new Object[]{ compiled, input });
+        } finally {
+            Context.exit();
+        }
+    }
 }
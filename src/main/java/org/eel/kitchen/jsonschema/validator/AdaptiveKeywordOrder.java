@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.validator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.eel.kitchen.jsonschema.keyword.KeywordValidator;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Adaptive evaluation order of keyword validators, for fail fast reports
+ *
+ * <p>When only a verdict is needed (see {@link
+ * ValidationReport#isFailFast()}), validation stops at the first failing
+ * keyword, and the order in which keywords are run does not change the
+ * result. This class records which keyword made validation stop, and
+ * regularly reorders keywords so that those which fail most often relative
+ * to their cost (see {@link KeywordValidator#getCost()}) are run first.</p>
+ *
+ * <p>Failure counts are halved at each reordering, so that the order follows
+ * changes in the instances being validated.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+final class AdaptiveKeywordOrder
+{
+    /**
+     * Number of failures between two reorderings
+     */
+    private static final int REORDER_INTERVAL = 64;
+
+    /**
+     * Keyword validators, in static order
+     */
+    private final KeywordValidator[] validators;
+
+    /**
+     * Keyword validator costs, in static order
+     */
+    private final long[] costs;
+
+    /**
+     * Failure counts, in static order
+     */
+    private final AtomicIntegerArray failures;
+
+    /**
+     * Total failure count
+     */
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    /**
+     * Current evaluation order, as indices in {@link #validators}
+     */
+    private volatile int[] order;
+
+    /**
+     * Constructor
+     *
+     * @param validators the keyword validators, in static order
+     */
+    AdaptiveKeywordOrder(final KeywordValidator[] validators)
+    {
+        this.validators = validators;
+        costs = new long[validators.length];
+        failures = new AtomicIntegerArray(validators.length);
+        order = new int[validators.length];
+
+        for (int i = 0; i < validators.length; i++) {
+            costs[i] = Math.max(1, validators[i].getCost());
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Validate an instance with all keyword validators, in adaptive order
+     *
+     * @param context the validation context
+     * @param report the validation report (fail fast)
+     * @param instance the instance
+     */
+    void validate(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance)
+    {
+        if (report.shouldStop())
+            return;
+
+        for (final int index: order) {
+            validators[index].validateTypedInstance(context, report, instance);
+            if (report.shouldStop()) {
+                recordFailure(index);
+                return;
+            }
+        }
+    }
+
+    private void recordFailure(final int index)
+    {
+        failures.incrementAndGet(index);
+        if (failureCount.incrementAndGet() % REORDER_INTERVAL == 0)
+            reorder();
+    }
+
+    /**
+     * Compute a new evaluation order
+     *
+     * <p>Keywords are sorted by increasing cost per failure; ties are broken
+     * using the static order.</p>
+     */
+    private synchronized void reorder()
+    {
+        final int size = validators.length;
+        final long[] weights = new long[size];
+        final Integer[] indices = new Integer[size];
+
+        for (int i = 0; i < size; i++) {
+            weights[i] = failures.get(i) + 1L;
+            indices[i] = i;
+            // Halve the count; concurrent failures may be lost, no matter
+            failures.set(i, failures.get(i) >>> 1);
+        }
+
+        Arrays.sort(indices, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(final Integer o1, final Integer o2)
+            {
+                final long c1 = costs[o1] * weights[o2];
+                final long c2 = costs[o2] * weights[o1];
+                if (c1 != c2)
+                    return c1 < c2 ? -1 : 1;
+                return o1.compareTo(o2);
+            }
+        });
+
+        final int[] newOrder = new int[size];
+
+        for (int i = 0; i < size; i++)
+            newOrder[i] = indices[i];
+
+        order = newOrder;
+    }
+
+    /**
+     * Return the keyword validators in their current evaluation order
+     *
+     * @return a new array of keyword validators
+     */
+    KeywordValidator[] getValidators()
+    {
+        final int[] current = order;
+        final KeywordValidator[] ret = new KeywordValidator[current.length];
+
+        for (int i = 0; i < current.length; i++)
+            ret[i] = validators[current[i]];
+
+        return ret;
+    }
+}
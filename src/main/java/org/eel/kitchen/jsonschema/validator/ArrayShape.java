@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.validator;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * The shape of a streamed array instance: an array node which only knows its
+ * number of elements
+ *
+ * <p>This is what keywords which only need the shape of an array (see {@link
+ * org.eel.kitchen.jsonschema.keyword.KeywordValidator#isShapeOnly()}) are
+ * given when an array is streamed, so that streaming an array does not
+ * allocate anything per element. Only {@link #size()} and the node type are
+ * meaningful: the node has no elements.</p>
+ *
+ * @see ArrayValidator#validateStream(ValidationContext, ValidationReport,
+ * com.fasterxml.jackson.core.JsonParser)
+ */
+final class ArrayShape
+    extends ArrayNode
+{
+    private final int size;
+
+    ArrayShape(final int size)
+    {
+        super(JsonNodeFactory.instance);
+        this.size = size;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean equals(final Object obj)
+    {
+        if (obj == null)
+            return false;
+        if (this == obj)
+            return true;
+        if (getClass() != obj.getClass())
+            return false;
+
+        return size == ((ArrayShape) obj).size;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "array of " + size + " element(s)";
+    }
+}
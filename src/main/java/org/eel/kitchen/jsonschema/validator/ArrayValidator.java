@@ -17,15 +17,25 @@
 
 package org.eel.kitchen.jsonschema.validator;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import org.eel.kitchen.jsonschema.ref.JsonPointer;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
 import org.eel.kitchen.jsonschema.util.JacksonUtils;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Validator called for array instance children
@@ -43,10 +53,27 @@ import java.util.List;
  *     nonexistent, then an empty schema).</li>
  * </ul>
  *
+ * <p>An instance of this class is built once per schema, by the schema's
+ * {@link InstanceValidator}.</p>
+ *
+ * <p>If parallel array validation is enabled (see {@link
+ * ValidationContext#enableParallelArrays(ExecutorService, int)}), large
+ * arrays are split into chunks which are validated concurrently.</p>
  */
 final class ArrayValidator
     implements JsonValidator
 {
+    /**
+     * Minimum number of elements in a chunk, for parallel validation
+     */
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    /**
+     * Maximum number of chunks, for parallel validation
+     */
+    private static final int MAX_CHUNKS
+        = 4 * Runtime.getRuntime().availableProcessors();
+
     private final JsonNode additionalItems;
 
     private final List<JsonNode> items;
@@ -75,28 +102,177 @@ final class ArrayValidator
     @Override
     public void validate(final ValidationContext context,
         final ValidationReport report, final JsonNode instance)
+    {
+        final int size = instance.size();
+
+        if (context.getExecutor() == null
+            || size < context.getParallelThreshold())
+            validateRange(context, report, instance, 0, size);
+        else
+            validateParallel(context, report, instance);
+    }
+
+    private void validateRange(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance,
+        final int start, final int end)
     {
         final JsonPointer pwd = report.getPath();
 
         JsonNode subSchema, element;
         JsonValidator validator;
 
-        for (int i = 0; i < instance.size(); i++) {
+        for (int i = start; i < end; i++) {
             report.setPath(pwd.append(i));
             element = instance.get(i);
             subSchema = getSchema(i);
             validator = context.newValidator(subSchema);
             validator.validate(context, report, element);
-            if (report.hasFatalError())
+            if (report.shouldStop())
                 break;
         }
 
         report.setPath(pwd);
     }
 
+    /**
+     * Validate array elements read from a parser
+     *
+     * <p>The parser's current token must be the start of the array; when this
+     * method returns, it is the end of the array.</p>
+     *
+     * @see StreamingValidator
+     *
+     * @param context the validation context
+     * @param report the validation report
+     * @param parser the parser
+     * @return the shape of the array (see {@link ArrayShape})
+     * @throws IOException failure to read from the parser
+     */
+    JsonNode validateStream(final ValidationContext context,
+        final ValidationReport report, final JsonParser parser)
+        throws IOException
+    {
+        final JsonPointer pwd = report.getPath();
+        JsonValidator validator;
+        int i = 0;
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (report.shouldStop()) {
+                parser.skipChildren();
+                continue;
+            }
+            report.setPath(pwd.append(i));
+            validator = context.newValidator(getSchema(i));
+            StreamingValidator.validateValue(validator, context, report,
+                parser);
+            i++;
+        }
+
+        report.setPath(pwd);
+        return new ArrayShape(i);
+    }
+
+    /**
+     * Validate array elements in parallel
+     *
+     * <p>The array is split into chunks, each of which is validated with its
+     * own copy of the context and report. All chunks but the first are
+     * submitted to the context's executor; the current thread validates the
+     * first chunk, then runs any chunk which has not been started yet (either
+     * because the executor is busy, or because it rejected it). Reports are
+     * then merged in element order.</p>
+     *
+     * @param context the validation context
+     * @param report the validation report
+     * @param instance the array instance
+     */
+    private void validateParallel(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance)
+    {
+        final int size = instance.size();
+        final int nrChunks = Math.min(MAX_CHUNKS,
+            Math.max(2, size / MIN_CHUNK_SIZE));
+        final int chunkSize = (size + nrChunks - 1) / nrChunks;
+        final ExecutorService executor = context.getExecutor();
+        final List<FutureTask<ValidationReport>> tasks = Lists.newArrayList();
+
+        FutureTask<ValidationReport> task;
+
+        for (int start = 0; start < size; start += chunkSize) {
+            task = new FutureTask<ValidationReport>(new Chunk(context,
+                report, instance, start, Math.min(size, start + chunkSize)));
+            tasks.add(task);
+            if (start == 0)
+                continue;
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ignored) {
+                // Will be run by the current thread
+            }
+        }
+
+        boolean stop = false;
+
+        for (final FutureTask<ValidationReport> t: tasks) {
+            if (stop) {
+                t.cancel(false);
+                continue;
+            }
+            // No-op if the task is running or done already
+            t.run();
+            report.mergeWith(getReport(t));
+            stop = report.shouldStop();
+        }
+    }
+
+    private static ValidationReport getReport(
+        final FutureTask<ValidationReport> task)
+    {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted during array validation",
+                e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
     @VisibleForTesting
     JsonNode getSchema(final int index)
     {
         return index >= items.size() ? additionalItems : items.get(index);
     }
+
+    /**
+     * Validation of a range of array elements, for parallel validation
+     */
+    private final class Chunk
+        implements Callable<ValidationReport>
+    {
+        private final ValidationContext context;
+        private final ValidationReport report;
+        private final JsonNode instance;
+        private final int start;
+        private final int end;
+
+        private Chunk(final ValidationContext context,
+            final ValidationReport report, final JsonNode instance,
+            final int start, final int end)
+        {
+            this.context = context.copy();
+            this.report = report.copy();
+            this.instance = instance;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public ValidationReport call()
+        {
+            validateRange(context, report, instance, start, end);
+            return report;
+        }
+    }
 }
@@ -17,27 +17,91 @@
 
 package org.eel.kitchen.jsonschema.validator;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
 import org.eel.kitchen.jsonschema.keyword.KeywordValidator;
 import org.eel.kitchen.jsonschema.ref.SchemaContainer;
 import org.eel.kitchen.jsonschema.ref.SchemaNode;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.eel.kitchen.jsonschema.util.NodeType;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * The main validator
  *
  * <p>Such a validator is only called when the schema syntax has been verified
- * to be correct. It is also responsible to instantiate an {@link
- * ArrayValidator} or {@link ObjectValidator} if necessary.</p>
+ * to be correct. It is also responsible for calling its {@link
+ * ArrayValidator} or {@link ObjectValidator} if necessary; both are built
+ * along with this validator, and reused for all instances.</p>
+ *
+ * <p>When built, it also creates a {@link LinkedValidator} for each subschema
+ * of its schema node; these links are looked up by node identity (see {@link
+ * ValidationContext#newValidator(JsonNode)}), which spares a cache lookup for
+ * each child instance or subschema validation.</p>
+ *
+ * <p>Keyword validators are also grouped by the instance types they apply to
+ * when this validator is built. The type of an instance is therefore only
+ * computed once, and only the keyword validators applying to it are run.</p>
  *
  * @see JsonValidatorCache#getValidator(SchemaNode)
  */
 final class InstanceValidator
     implements JsonValidator
 {
+    /**
+     * Keywords whose value may be a schema, or an array of schemas
+     *
+     * <p>Note that {@code type} and {@code disallow} arrays may also contain
+     * primitive types; only objects in these arrays are schemas.</p>
+     */
+    private static final Set<String> SCHEMA_KEYWORDS = ImmutableSet.of(
+        "additionalItems", "additionalProperties", "disallow", "extends",
+        "items", "type");
+
+    /**
+     * Keywords whose value is an object with schemas as member values
+     *
+     * <p>Member values of {@code dependencies} which are not objects are
+     * property dependencies, not schemas.</p>
+     */
+    private static final Set<String> SCHEMA_MAP_KEYWORDS = ImmutableSet.of(
+        "dependencies", "patternProperties", "properties");
+
+    /**
+     * Static evaluation order of keyword validators
+     */
+    private static final Ordering<KeywordValidator> STATIC_ORDER
+        = new Ordering<KeywordValidator>()
+    {
+        @Override
+        public int compare(final KeywordValidator o1,
+            final KeywordValidator o2)
+        {
+            final int c1 = o1.getCost();
+            final int c2 = o2.getCost();
+
+            if (c1 != c2)
+                return c1 < c2 ? -1 : 1;
+
+            final int ret = o1.getClass().getName()
+                .compareTo(o2.getClass().getName());
+
+            return ret != 0 ? ret : o1.toString().compareTo(o2.toString());
+        }
+    };
+
     /**
      * The schema node
      */
@@ -48,39 +112,266 @@ final class InstanceValidator
      */
     private final Set<KeywordValidator> validators;
 
+    /**
+     * Keyword validators applying to each instance type, indexed by {@link
+     * NodeType#ordinal()}
+     */
+    private final KeywordValidator[][] dispatch;
+
+    /**
+     * Adaptive keyword orders for fail fast reports, indexed by {@link
+     * NodeType#ordinal()}; {@code null} for types with less than two keyword
+     * validators
+     */
+    private final AdaptiveKeywordOrder[] adaptive;
+
+    /**
+     * Links to subschema validators, indexed by subschema node identity
+     */
+    private final Map<JsonNode, LinkedValidator> links;
+
+    /**
+     * Validator for array instance children
+     */
+    private final ArrayValidator arrayValidator;
+
+    /**
+     * Validator for object instance children
+     */
+    private final ObjectValidator objectValidator;
+
+    /**
+     * Whether array instances can be streamed
+     */
+    private final boolean streamArrays;
+
+    /**
+     * Whether object instances can be streamed
+     */
+    private final boolean streamObjects;
+
     /**
      * Constructor, package private
      *
+     * @param cache the validator cache, used to resolve links
      * @param schemaNode the schema node
      * @param validators the set of keyword validators
      */
-    InstanceValidator(final SchemaNode schemaNode,
-        final Set<KeywordValidator> validators)
+    InstanceValidator(final JsonValidatorCache cache,
+        final SchemaNode schemaNode, final Set<KeywordValidator> validators)
     {
         this.validators = ImmutableSet.copyOf(validators);
+        dispatch = buildDispatch(this.validators);
+        adaptive = new AdaptiveKeywordOrder[dispatch.length];
+        for (int i = 0; i < dispatch.length; i++)
+            if (dispatch[i].length > 1)
+                adaptive[i] = new AdaptiveKeywordOrder(dispatch[i]);
         this.schemaNode = schemaNode;
+        links = buildLinks(cache, schemaNode);
+        arrayValidator = new ArrayValidator(schemaNode.getNode());
+        objectValidator = new ObjectValidator(schemaNode.getNode());
+        streamArrays = canStream(this.validators, NodeType.ARRAY);
+        streamObjects = canStream(this.validators, NodeType.OBJECT);
+    }
+
+    SchemaContainer getContainer()
+    {
+        return schemaNode.getContainer();
+    }
+
+    /**
+     * Get the link to a subschema validator, if any
+     *
+     * @param node the subschema
+     * @return the link, or {@code null} if this node is not a known subschema
+     */
+    LinkedValidator getLink(final JsonNode node)
+    {
+        return links.get(node);
+    }
+
+    Collection<LinkedValidator> getLinks()
+    {
+        return links.values();
     }
 
     @Override
     public void validate(final ValidationContext context,
         final ValidationReport report, final JsonNode instance)
     {
-        final SchemaContainer orig = context.getContainer();
-        context.setContainer(schemaNode.getContainer());
+        final InstanceValidator orig = context.getCurrent();
+        context.setCurrent(this);
+
+        validateInstance(context, report, instance);
+
+        context.setCurrent(orig);
+    }
+
+    private void validateInstance(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance)
+    {
+        final NodeType type = NodeType.getNodeType(instance);
+        final AdaptiveKeywordOrder order = adaptive[type.ordinal()];
+
+        if (order != null && report.isFailFast())
+            order.validate(context, report, instance);
+        else
+            for (final KeywordValidator validator: dispatch[type.ordinal()]) {
+                validator.validateTypedInstance(context, report, instance);
+                if (report.shouldStop())
+                    break;
+            }
+
+        if (report.shouldStop())
+            return;
 
-        for (final KeywordValidator validator: validators) {
-            validator.validateInstance(context, report, instance);
-            if (report.hasFatalError())
-                return;
+        if (type == NodeType.ARRAY)
+            arrayValidator.validate(context, report, instance);
+        else if (type == NodeType.OBJECT)
+            objectValidator.validate(context, report, instance);
+    }
+
+    /**
+     * Validate a container instance read from a parser
+     *
+     * <p>The parser's current token must be the start of an array or object.
+     * If all keywords applying to this type of instance only need its shape,
+     * children are validated while being read, and keywords are then checked
+     * against the shape of the container; otherwise, the instance is
+     * materialized.</p>
+     *
+     * @see StreamingValidator
+     *
+     * @param context the validation context
+     * @param report the validation report
+     * @param parser the parser
+     * @throws IOException failure to read from the parser
+     */
+    void validateStream(final ValidationContext context,
+        final ValidationReport report, final JsonParser parser)
+        throws IOException
+    {
+        final boolean isArray = parser.getCurrentToken()
+            == JsonToken.START_ARRAY;
+
+        if (!(isArray ? streamArrays : streamObjects)) {
+            validate(context, report, JsonLoader.fromParser(parser));
+            return;
         }
 
-        if (instance.isContainerNode()) {
-            final JsonValidator validator = instance.isArray()
-                ? new ArrayValidator(schemaNode.getNode())
-                : new ObjectValidator(schemaNode.getNode());
+        final InstanceValidator orig = context.getCurrent();
+        context.setCurrent(this);
+
+        try {
+            final JsonNode shape = isArray
+                ? arrayValidator.validateStream(context, report, parser)
+                : objectValidator.validateStream(context, report, parser);
+
+            final NodeType type = isArray ? NodeType.ARRAY : NodeType.OBJECT;
 
-            validator.validate(context, report, instance);
+            for (final KeywordValidator validator: dispatch[type.ordinal()]) {
+                if (report.shouldStop())
+                    break;
+                validator.validateTypedInstance(context, report, shape);
+            }
+        } finally {
+            context.setCurrent(orig);
         }
-        context.setContainer(orig);
+    }
+
+    @Override
+    public String toString()
+    {
+        return schemaNode + "; " + validators.size() + " keyword validator(s)";
+    }
+
+    /**
+     * Build the keyword validator arrays for all instance types
+     *
+     * <p>Keyword validators are sorted by increasing cost (see {@link
+     * KeywordValidator#getCost()}), then by class name and description, so
+     * that the order is the same from one run to the next. They keep the same
+     * relative order in all arrays.</p>
+     *
+     * @param validators the keyword validators
+     * @return the arrays, indexed by {@link NodeType#ordinal()}
+     */
+    private static KeywordValidator[][] buildDispatch(
+        final Set<KeywordValidator> validators)
+    {
+        final NodeType[] types = NodeType.values();
+        final KeywordValidator[][] ret = new KeywordValidator[types.length][];
+        final List<KeywordValidator> list = Lists.newArrayList();
+        final List<KeywordValidator> sorted
+            = STATIC_ORDER.sortedCopy(validators);
+
+        for (final NodeType type: types) {
+            list.clear();
+            for (final KeywordValidator validator: sorted)
+                if (validator.validatesType(type))
+                    list.add(validator);
+            ret[type.ordinal()] = list.toArray(new KeywordValidator[0]);
+        }
+
+        return ret;
+    }
+
+    private static boolean canStream(final Set<KeywordValidator> validators,
+        final NodeType type)
+    {
+        for (final KeywordValidator validator: validators)
+            if (validator.validatesType(type) && !validator.isShapeOnly())
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Create links for all subschemas of a schema node
+     *
+     * @param cache the validator cache
+     * @param schemaNode the schema node
+     * @return an immutable map of links, indexed by node identity
+     */
+    private static Map<JsonNode, LinkedValidator> buildLinks(
+        final JsonValidatorCache cache, final SchemaNode schemaNode)
+    {
+        final SchemaContainer container = schemaNode.getContainer();
+        final JsonNode schema = schemaNode.getNode();
+        final Map<JsonNode, LinkedValidator> ret
+            = new IdentityHashMap<JsonNode, LinkedValidator>();
+
+        JsonNode node;
+
+        for (final String keyword: SCHEMA_KEYWORDS) {
+            node = schema.path(keyword);
+            if (node.isObject())
+                addLink(cache, container, node, ret);
+            else if (node.isArray())
+                for (final JsonNode element: node)
+                    if (element.isObject())
+                        addLink(cache, container, element, ret);
+        }
+
+        for (final String keyword: SCHEMA_MAP_KEYWORDS) {
+            node = schema.path(keyword);
+            if (!node.isObject())
+                continue;
+            for (final JsonNode value: node)
+                if (value.isObject())
+                    addLink(cache, container, value, ret);
+        }
+
+        return ret.isEmpty() ? Collections.<JsonNode, LinkedValidator>emptyMap()
+            : Collections.unmodifiableMap(ret);
+    }
+
+    private static void addLink(final JsonValidatorCache cache,
+        final SchemaContainer container, final JsonNode node,
+        final Map<JsonNode, LinkedValidator> links)
+    {
+        if (!links.containsKey(node))
+            links.put(node, new LinkedValidator(cache,
+                new SchemaNode(container, node)));
     }
 }
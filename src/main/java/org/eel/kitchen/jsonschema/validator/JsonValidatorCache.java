@@ -23,7 +23,9 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.eel.kitchen.jsonschema.bundle.KeywordBundle;
+import org.eel.kitchen.jsonschema.format.FormatBundle;
 import org.eel.kitchen.jsonschema.keyword.KeywordFactory;
 import org.eel.kitchen.jsonschema.keyword.KeywordValidator;
 import org.eel.kitchen.jsonschema.main.JsonSchemaException;
@@ -34,7 +36,10 @@ import org.eel.kitchen.jsonschema.report.ValidationReport;
 import org.eel.kitchen.jsonschema.syntax.SyntaxValidator;
 import org.eel.kitchen.jsonschema.util.JacksonUtils;
 
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 
 /**
@@ -51,7 +56,10 @@ import java.util.Set;
  */
 public final class JsonValidatorCache
 {
-    private static final JsonValidator ALWAYS_TRUE
+    /**
+     * Validator for the empty schema
+     */
+    static final JsonValidator ALWAYS_TRUE
         = new JsonValidator()
     {
         @Override
@@ -83,10 +91,23 @@ public final class JsonValidatorCache
      */
     public JsonValidatorCache(final KeywordBundle bundle,
         final SchemaRegistry registry)
+    {
+        this(bundle, FormatBundle.defaultBundle(), registry);
+    }
+
+    /**
+     * Constructor with a custom format bundle
+     *
+     * @param bundle the keyword bundle
+     * @param formatBundle the format bundle
+     * @param registry the schema registry
+     */
+    public JsonValidatorCache(final KeywordBundle bundle,
+        final FormatBundle formatBundle, final SchemaRegistry registry)
     {
         resolver = new JsonResolver(registry);
         syntaxValidator = new SyntaxValidator(bundle);
-        keywordFactory = new KeywordFactory(bundle);
+        keywordFactory = new KeywordFactory(bundle, formatBundle);
 
         cache = CacheBuilder.newBuilder().maximumSize(100L)
             .build(cacheLoader());
@@ -98,16 +119,64 @@ public final class JsonValidatorCache
     }
 
     /**
-     * The cache loader function
+     * Compile a schema into a fully linked validator graph
      *
-     * <p>The implemented {@link CacheLoader#load(Object)} method is the
-     * critical part. It will try and check if ref resolution succeeds, if so it
-     * checks the schema syntax, and finally it returns a validator.</p>
+     * <p>This builds the validator for the given schema node, then walks its
+     * subschema links and resolves each of them, building validators for
+     * schema nodes as they are encountered. Each distinct schema node is only
+     * built once, even if it is referenced from several places (or from
+     * itself, in the case of recursive schemas); the result is therefore
+     * independent of the cache size.</p>
      *
-     * <p>If any of the preliminary checks fail, it returns a {@link
-     * FailingValidator}, else it returns an {@link InstanceValidator}.</p>
+     * <p>Note that validators for subschemas introduced by custom keywords
+     * cannot be known in advance: these are still looked up in the cache at
+     * validation time.</p>
+     *
+     * @param schemaNode the schema node
+     * @return the root validator
+     */
+    public JsonValidator compile(final SchemaNode schemaNode)
+    {
+        final Map<SchemaNode, JsonValidator> built = Maps.newHashMap();
+        final Queue<InstanceValidator> queue
+            = new ArrayDeque<InstanceValidator>();
+
+        final JsonValidator ret = compileOne(schemaNode, built, queue);
+
+        InstanceValidator validator;
+
+        while ((validator = queue.poll()) != null)
+            for (final LinkedValidator link: validator.getLinks())
+                if (!link.isResolved())
+                    link.setTarget(compileOne(link.getSchemaNode(), built,
+                        queue));
+
+        return ret;
+    }
+
+    private JsonValidator compileOne(final SchemaNode schemaNode,
+        final Map<SchemaNode, JsonValidator> built,
+        final Queue<InstanceValidator> queue)
+    {
+        JsonValidator ret = built.get(schemaNode);
+
+        if (ret != null)
+            return ret;
+
+        ret = cache.getUnchecked(schemaNode);
+        built.put(schemaNode, ret);
+
+        if (ret instanceof InstanceValidator)
+            queue.add((InstanceValidator) ret);
+
+        return ret;
+    }
+
+    /**
+     * The cache loader function
      *
      * @return the loader function
+     * @see #buildValidator(SchemaNode)
      */
     private CacheLoader<SchemaNode, JsonValidator> cacheLoader()
     {
@@ -116,39 +185,57 @@ public final class JsonValidatorCache
             @Override
             public JsonValidator load(final SchemaNode key)
             {
-                // We can do that: we ask JacksonUtils to return an empty schema
-                // each time we have to return one.
-                if (key.getNode() == JacksonUtils.emptySchema())
-                    return ALWAYS_TRUE;
+                return buildValidator(key);
+            }
+        };
+    }
 
-                final SchemaNode realNode;
+    /**
+     * Build a validator for a schema node
+     *
+     * <p>This is the critical part. It will try and check if ref resolution
+     * succeeds, if so it checks the schema syntax, and finally it returns a
+     * validator.</p>
+     *
+     * <p>If any of the preliminary checks fail, it returns a {@link
+     * FailingValidator}, else it returns an {@link InstanceValidator}.</p>
+     *
+     * @param key the schema node
+     * @return the validator
+     */
+    private JsonValidator buildValidator(final SchemaNode key)
+    {
+        // We can do that: we ask JacksonUtils to return an empty schema
+        // each time we have to return one.
+        if (key.getNode() == JacksonUtils.emptySchema())
+            return ALWAYS_TRUE;
 
-                try {
-                    realNode = resolver.resolve(key);
-                } catch (JsonSchemaException e) {
-                    return new FailingValidator(e.getValidationMessage());
-                }
+        final SchemaNode realNode;
 
-                final List<Message> messages = Lists.newArrayList();
+        try {
+            realNode = resolver.resolve(key);
+        } catch (JsonSchemaException e) {
+            return new FailingValidator(e.getValidationMessage());
+        }
 
-                syntaxValidator.validate(messages, realNode.getNode());
+        final List<Message> messages = Lists.newArrayList();
 
-                if (!messages.isEmpty())
-                    return new FailingValidator(messages);
+        syntaxValidator.validate(messages, realNode.getNode());
 
-                final Set<KeywordValidator> validators
-                    = keywordFactory.getValidators(realNode.getNode());
+        if (!messages.isEmpty())
+            return new FailingValidator(messages);
 
-                return new InstanceValidator(realNode, validators);
-            }
-        };
+        final Set<KeywordValidator> validators
+            = keywordFactory.getValidators(realNode.getNode());
+
+        return new InstanceValidator(this, realNode, validators);
     }
 
     /**
      * Class instantiated when a schema node fails to pass ref resolution or
      * syntax checking
      *
-     * @see #cacheLoader()
+     * @see #buildValidator(SchemaNode)
      */
     private static final class FailingValidator
         implements JsonValidator
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.validator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.eel.kitchen.jsonschema.ref.SchemaNode;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+
+/**
+ * A link from a schema to the validator of one of its subschemas
+ *
+ * <p>Links are created when an {@link InstanceValidator} is built, but they
+ * cannot be resolved at that time: schemas may be recursive, and the cache
+ * loader cannot be reentered. Links are therefore resolved afterwards, either
+ * by {@link JsonValidatorCache#compile(SchemaNode)} or, failing that, the
+ * first time they are used. From then on, validation is a direct call to the
+ * target validator.</p>
+ *
+ * <p>This class is thread safe: a link may be resolved more than once if two
+ * threads race for it, but both will obtain an equivalent validator.</p>
+ */
+final class LinkedValidator
+    implements JsonValidator
+{
+    private final JsonValidatorCache cache;
+    private final SchemaNode schemaNode;
+
+    /**
+     * The target validator, {@code null} until resolved
+     */
+    private volatile JsonValidator target;
+
+    LinkedValidator(final JsonValidatorCache cache, final SchemaNode schemaNode)
+    {
+        this.cache = cache;
+        this.schemaNode = schemaNode;
+    }
+
+    SchemaNode getSchemaNode()
+    {
+        return schemaNode;
+    }
+
+    boolean isResolved()
+    {
+        return target != null;
+    }
+
+    void setTarget(final JsonValidator target)
+    {
+        this.target = target;
+    }
+
+    /**
+     * Return the target validator, resolving it if necessary
+     *
+     * @return the target validator
+     */
+    JsonValidator getTarget()
+    {
+        JsonValidator ret = target;
+
+        if (ret == null) {
+            ret = cache.getValidator(schemaNode);
+            target = ret;
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void validate(final ValidationContext context,
+        final ValidationReport report, final JsonNode instance)
+    {
+        getTarget().validate(context, report, instance);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "link to " + schemaNode;
+    }
+}
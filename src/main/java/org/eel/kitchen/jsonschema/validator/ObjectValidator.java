@@ -17,17 +17,36 @@
 
 package org.eel.kitchen.jsonschema.validator;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.collect.ImmutableSet;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.eel.kitchen.jsonschema.ref.JsonPointer;
+import org.eel.kitchen.jsonschema.report.Domain;
+import org.eel.kitchen.jsonschema.report.Message;
 import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.EcmaRegexSet;
 import org.eel.kitchen.jsonschema.util.JacksonUtils;
-import org.eel.kitchen.jsonschema.util.RhinoHelper;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.eel.kitchen.jsonschema.util.RegexBudgetExceededException;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Validator called for object instance children
@@ -46,29 +65,100 @@ import java.util.Set;
  *     {@code additionalProperties} is either {@code true} or nonexistent).</li>
  * </ul>
  *
+ * <p>An instance of this class is built once per schema, by the schema's
+ * {@link InstanceValidator}. If there are no pattern properties, the list
+ * of schemas is a direct lookup; otherwise, it is computed once per property
+ * name and memoized.</p>
+ *
+ * <p>If a regex budget is set (see {@link
+ * ValidationContext#getRegexBudget()}) and matching a property name against
+ * {@code patternProperties} exceeds it, validation fails and the member value
+ * is not validated.</p>
  */
 final class ObjectValidator
     implements JsonValidator
 {
-    private final JsonNode additionalProperties;
-    private final Map<String, JsonNode> properties;
-    private final Map<String, JsonNode> patternProperties;
+    /**
+     * Maximum number of memoized property names, per schema
+     */
+    private static final long MAX_MEMOIZED_NAMES = 1000L;
+
+    /**
+     * Schema list for properties only matching {@code additionalProperties}
+     */
+    private final List<JsonNode> additionalProperties;
+
+    /**
+     * Schema lists for members of {@code properties}
+     *
+     * <p>This is only used if there is no {@code patternProperties}.</p>
+     */
+    private final Map<String, List<JsonNode>> properties;
+
+    /**
+     * Memoized schema lists, by property name
+     *
+     * <p>This is {@code null} if there is no {@code patternProperties}.</p>
+     */
+    private final Cache<String, List<JsonNode>> memo;
+
+    /**
+     * The regexes of {@code patternProperties}, {@code null} if none
+     */
+    private final EcmaRegexSet regexes;
+
+    /**
+     * Schemas of {@code patternProperties}, in the order of {@link #regexes}
+     */
+    private final List<JsonNode> patternSchemas;
+
+    /**
+     * Members of {@code properties}
+     */
+    private final Map<String, JsonNode> propertySchemas;
 
     ObjectValidator(final JsonNode schema)
     {
         JsonNode node;
 
         node = schema.path("additionalProperties");
-        additionalProperties = node.isObject() ? node
-            : JacksonUtils.emptySchema();
+        additionalProperties = ImmutableList.of(node.isObject() ? node
+            : JacksonUtils.emptySchema());
 
         node = schema.path("properties");
-        properties = node.isObject() ? JacksonUtils.nodeToMap(node)
+        final Map<String, JsonNode> map = node.isObject()
+            ? ImmutableMap.copyOf(JacksonUtils.nodeToMap(node))
             : Collections.<String, JsonNode>emptyMap();
 
+        final ImmutableMap.Builder<String, List<JsonNode>> builder
+            = ImmutableMap.builder();
+
+        for (final Map.Entry<String, JsonNode> entry: map.entrySet())
+            builder.put(entry.getKey(), ImmutableList.of(entry.getValue()));
+
+        properties = builder.build();
+
+        propertySchemas = map;
+
         node = schema.path("patternProperties");
-        patternProperties = node.isObject() ? JacksonUtils.nodeToMap(node)
-            : Collections.<String, JsonNode>emptyMap();
+
+        if (node.size() == 0) {
+            memo = null;
+            regexes = null;
+            patternSchemas = null;
+            return;
+        }
+
+        memo = CacheBuilder.newBuilder().maximumSize(MAX_MEMOIZED_NAMES)
+            .build();
+        regexes = EcmaRegexSet.forPatternProperties(node);
+
+        final ImmutableList.Builder<JsonNode> schemas = ImmutableList.builder();
+
+        for (final String regex: regexes.getRegexes())
+            schemas.add(node.get(regex));
+
+        patternSchemas = schemas.build();
     }
 
     @Override
@@ -76,10 +166,11 @@ final class ObjectValidator
         final ValidationReport report, final JsonNode instance)
     {
         final JsonPointer pwd = report.getPath();
-        final Map<String, JsonNode> map = JacksonUtils.nodeToMap(instance);
+        final Iterator<Map.Entry<String, JsonNode>> iterator
+            = instance.fields();
 
-        for (final Map.Entry<String, JsonNode> entry: map.entrySet())
-            if (!validateOne(context, report, entry))
+        while (iterator.hasNext())
+            if (!validateOne(context, report, iterator.next()))
                 break;
 
         report.setPath(pwd);
@@ -91,37 +182,157 @@ final class ObjectValidator
         final String key = entry.getKey();
         final JsonNode value = entry.getValue();
         final JsonPointer ptr = report.getPath().append(key);
-        final Set<JsonNode> subSchemas = getSchemas(key);
-
-        JsonValidator validator;
 
         report.setPath(ptr);
 
+        final List<JsonNode> subSchemas = getSchemas(context, report, key);
+
+        JsonValidator validator;
+
         for (final JsonNode subSchema: subSchemas) {
             validator = context.newValidator(subSchema);
             validator.validate(context, report, value);
-            if (report.hasFatalError())
+            if (report.shouldStop())
                 return false;
         }
 
-        return true;
+        return !report.shouldStop();
+    }
+
+    /**
+     * Validate object members read from a parser
+     *
+     * <p>The parser's current token must be the start of the object; when
+     * this method returns, it is the end of the object. Member values which
+     * must be validated against more than one schema are materialized.</p>
+     *
+     * @see StreamingValidator
+     *
+     * @param context the validation context
+     * @param report the validation report
+     * @param parser the parser
+     * @return the shape of the object (an object with null member values)
+     * @throws IOException failure to read from the parser
+     */
+    JsonNode validateStream(final ValidationContext context,
+        final ValidationReport report, final JsonParser parser)
+        throws IOException
+    {
+        final JsonPointer pwd = report.getPath();
+        final ObjectNode shape = JsonNodeFactory.instance.objectNode();
+
+        String key;
+        List<JsonNode> subSchemas;
+        JsonNode value;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            key = parser.getCurrentName();
+            parser.nextToken();
+            shape.putNull(key);
+            if (report.shouldStop()) {
+                parser.skipChildren();
+                continue;
+            }
+            report.setPath(pwd.append(key));
+            subSchemas = getSchemas(context, report, key);
+            if (subSchemas.isEmpty()) {
+                parser.skipChildren();
+                continue;
+            }
+            if (subSchemas.size() == 1) {
+                StreamingValidator.validateValue(
+                    context.newValidator(subSchemas.get(0)), context, report,
+                    parser);
+                continue;
+            }
+            value = JsonLoader.fromParser(parser);
+            for (final JsonNode subSchema: subSchemas) {
+                context.newValidator(subSchema).validate(context, report,
+                    value);
+                if (report.shouldStop())
+                    break;
+            }
+        }
+
+        report.setPath(pwd);
+        return shape;
     }
 
-    private Set<JsonNode> getSchemas(final String key)
+    /**
+     * Return the list of schemas for a property name
+     *
+     * @param context the validation context
+     * @param report the validation report, for regex budget failures
+     * @param key the property name
+     * @return the list of schemas (empty if the regex budget was exceeded)
+     */
+    private List<JsonNode> getSchemas(final ValidationContext context,
+        final ValidationReport report, final String key)
     {
-        final Set<JsonNode> ret = Sets.newHashSet();
+        if (memo == null) {
+            final List<JsonNode> ret = properties.get(key);
+            return ret != null ? ret : additionalProperties;
+        }
+
+        /*
+         * Only build a loader on a miss, so that looking up a memoized
+         * property name does not allocate
+         */
+        final List<JsonNode> memoized = memo.getIfPresent(key);
 
-        if (properties.containsKey(key))
-            ret.add(properties.get(key));
+        if (memoized != null)
+            return memoized;
+
+        try {
+            return memo.get(key, new Callable<List<JsonNode>>()
+            {
+                @Override
+                public List<JsonNode> call()
+                {
+                    return computeSchemas(key, context.getRegexBudget());
+                }
+            });
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (!(e.getCause() instanceof RegexBudgetExceededException))
+                throw Throwables.propagate(e.getCause());
+            if (!report.failFast()) {
+                final RegexBudgetExceededException cause
+                    = (RegexBudgetExceededException) e.getCause();
+                final Message.Builder msg = Domain.VALIDATION.newMessage()
+                    .setKeyword("patternProperties")
+                    .addInfo("regex", cause.getRegex())
+                    .addInfo("budget", cause.getBudget())
+                    .setMessage("regex matching exceeded its budget");
+                report.addMessage(msg.build());
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Compute the list of schemas for a property name
+     *
+     * <p>Note that, as a same schema may appear both in {@code properties} and
+     * in {@code patternProperties}, or more than once in the latter, schemas
+     * are deduplicated: each distinct schema is only validated once.</p>
+     *
+     * @param key the property name
+     * @param budget the regex budget
+     * @return the list of schemas
+     */
+    private List<JsonNode> computeSchemas(final String key, final long budget)
+    {
+        final Set<JsonNode> set = Sets.newLinkedHashSet();
 
-        for (final Map.Entry<String, JsonNode> entry:
-            patternProperties.entrySet())
-            if (RhinoHelper.regMatch(entry.getKey(), key))
-                ret.add(entry.getValue());
+        if (propertySchemas.containsKey(key))
+            set.add(propertySchemas.get(key));
 
-        if (ret.isEmpty())
-            ret.add(additionalProperties);
+        for (final int index: regexes.getMatches(key, budget))
+            set.add(patternSchemas.get(index));
 
-        return ImmutableSet.copyOf(ret);
+        return set.isEmpty() ? additionalProperties
+            : ImmutableList.copyOf(set);
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.validator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Validation of an instance read from a {@link JsonParser}
+ *
+ * <p>Array and object instances are not materialized as a whole: their
+ * children are validated one at a time, as they are read from the parser.
+ * Keywords applying to the container itself are then checked against its
+ * shape only (see {@link
+ * org.eel.kitchen.jsonschema.keyword.KeywordValidator#isShapeOnly()}).</p>
+ *
+ * <p>Instances are only materialized when needed, that is:</p>
+ *
+ * <ul>
+ *     <li>for primitive instances (strings, numbers, etc);</li>
+ *     <li>for container instances if one keyword needs more than their shape
+ *     (for instance, {@code enum}, or {@code uniqueItems} set to {@code true});
+ *     </li>
+ *     <li>for object member values which have to be validated against more
+ *     than one schema;</li>
+ *     <li>when the validator is not an {@link InstanceValidator} (ref
+ *     resolution or syntax errors).</li>
+ * </ul>
+ *
+ * <p>Note that the order in which messages are collected differs from the
+ * order with materialized instances, since children are validated before
+ * their container; this makes no difference in the final report.</p>
+ */
+public final class StreamingValidator
+{
+    private StreamingValidator()
+    {
+    }
+
+    /**
+     * Validate the next value read from a parser
+     *
+     * <p>If the parser has a current token, validation starts at this token,
+     * otherwise the next token is read. When this method returns, the parser's
+     * current token is the last token of the value.</p>
+     *
+     * @param validator the validator
+     * @param context the validation context
+     * @param report the validation report
+     * @param parser the parser
+     * @throws IOException failure to read from the parser, or no value to read
+     */
+    public static void validate(final JsonValidator validator,
+        final ValidationContext context, final ValidationReport report,
+        final JsonParser parser)
+        throws IOException
+    {
+        if (parser.getCurrentToken() == null && parser.nextToken() == null)
+            throw new EOFException("no JSON value to validate");
+
+        validateValue(validator, context, report, parser);
+    }
+
+    /**
+     * Validate the value starting at the parser's current token
+     *
+     * @param validator the validator
+     * @param context the validation context
+     * @param report the validation report
+     * @param parser the parser
+     * @throws IOException failure to read from the parser
+     */
+    static void validateValue(final JsonValidator validator,
+        final ValidationContext context, final ValidationReport report,
+        final JsonParser parser)
+        throws IOException
+    {
+        final JsonValidator target = validator instanceof LinkedValidator
+            ? ((LinkedValidator) validator).getTarget() : validator;
+
+        if (target == JsonValidatorCache.ALWAYS_TRUE) {
+            parser.skipChildren();
+            return;
+        }
+
+        final JsonToken token = parser.getCurrentToken();
+
+        if (target instanceof InstanceValidator
+            && (token == JsonToken.START_ARRAY
+            || token == JsonToken.START_OBJECT)) {
+            ((InstanceValidator) target).validateStream(context, report,
+                parser);
+            return;
+        }
+
+        target.validate(context, report, JsonLoader.fromParser(parser));
+    }
+}
@@ -18,15 +18,14 @@
 package org.eel.kitchen.jsonschema.validator;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.collect.ImmutableMap;
-import org.eel.kitchen.jsonschema.format.FormatBundle;
-import org.eel.kitchen.jsonschema.format.FormatSpecifier;
+import org.eel.kitchen.jsonschema.format.FormatCache;
 import org.eel.kitchen.jsonschema.main.ValidationFeature;
 import org.eel.kitchen.jsonschema.ref.SchemaContainer;
 import org.eel.kitchen.jsonschema.ref.SchemaNode;
+import org.eel.kitchen.jsonschema.util.EcmaRegex;
 
 import java.util.EnumSet;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A validation context
@@ -45,9 +44,12 @@ import java.util.Map;
 public final class ValidationContext
 {
     private final JsonValidatorCache cache;
-    private SchemaContainer container;
+    private InstanceValidator current;
     private final EnumSet<ValidationFeature> features;
-    private final Map<String, FormatSpecifier> specifiers;
+    private ExecutorService executor = null;
+    private int parallelThreshold = Integer.MAX_VALUE;
+    private long regexBudget = 0L;
+    private FormatCache formatCache = null;
 
     /**
      * Create a validation context with an empty feature set
@@ -70,62 +72,161 @@ public final class ValidationContext
     {
         this.cache = cache;
         this.features = EnumSet.copyOf(features);
-        specifiers = ImmutableMap.copyOf(FormatBundle.defaultBundle()
-            .getSpecifiers());
     }
 
-    SchemaContainer getContainer()
+    /**
+     * Copy constructor
+     *
+     * @param other the context to copy
+     */
+    private ValidationContext(final ValidationContext other)
     {
-        return container;
+        cache = other.cache;
+        current = other.current;
+        features = other.features;
+        executor = other.executor;
+        parallelThreshold = other.parallelThreshold;
+        regexBudget = other.regexBudget;
+        formatCache = other.formatCache;
     }
 
-    void setContainer(final SchemaContainer container)
+    /**
+     * Make a copy of this context
+     *
+     * <p>This is used to validate parts of an instance in another thread.</p>
+     *
+     * @return a new context, with the same state as this one
+     */
+    ValidationContext copy()
     {
-        this.container = container;
+        return new ValidationContext(this);
     }
 
     /**
-     * Test that the validation context contains a certain feature
+     * Enable parallel validation of large arrays
      *
-     * @param feature the feature to test
-     * @return true if the feature is present
+     * @see ArrayValidator
+     *
+     * @param executor the executor to submit array chunks to
+     * @param threshold the minimum array size for parallel validation
      */
-    public boolean hasFeature(final ValidationFeature feature)
+    public void enableParallelArrays(final ExecutorService executor,
+        final int threshold)
     {
-        return features.contains(feature);
+        this.executor = executor;
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * Set the budget for regex matching
+     *
+     * @see EcmaRegex#matches(String, long)
+     *
+     * @param regexBudget the budget, 0 for no limit
+     */
+    public void setRegexBudget(final long regexBudget)
+    {
+        this.regexBudget = regexBudget;
+    }
+
+    /**
+     * Get the budget for regex matching
+     *
+     * @return the budget, 0 for no limit
+     */
+    public long getRegexBudget()
+    {
+        return regexBudget;
+    }
+
+    /**
+     * Set the cache of format check results
+     *
+     * @param formatCache the cache, {@code null} to disable caching
+     */
+    public void setFormatCache(final FormatCache formatCache)
+    {
+        this.formatCache = formatCache;
     }
 
     /**
-     * Return a format specifier for a given attribute
+     * Get the cache of format check results
      *
-     * @see FormatBundle
+     * @return the cache, {@code null} if caching is disabled
+     */
+    public FormatCache getFormatCache()
+    {
+        return formatCache;
+    }
+
+    /**
+     * Get the executor for parallel array validation
      *
-     * @param fmt the format attribute
-     * @return the specifier, {@code null} if not found
+     * @return the executor, {@code null} if parallel validation is disabled
      */
-    public FormatSpecifier getFormat(final String fmt)
+    public ExecutorService getExecutor()
     {
-        return specifiers.get(fmt);
+        return executor;
+    }
+
+    /**
+     * Get the minimum array size for parallel validation
+     *
+     * @return the threshold
+     */
+    public int getParallelThreshold()
+    {
+        return parallelThreshold;
+    }
+
+    InstanceValidator getCurrent()
+    {
+        return current;
+    }
+
+    void setCurrent(final InstanceValidator current)
+    {
+        this.current = current;
+    }
+
+    /**
+     * Test that the validation context contains a certain feature
+     *
+     * @param feature the feature to test
+     * @return true if the feature is present
+     */
+    public boolean hasFeature(final ValidationFeature feature)
+    {
+        return features.contains(feature);
     }
 
     /**
      * Build a new validator out of a JSON document
      *
-     * <p>This calls {@link JsonValidatorCache#getValidator(SchemaNode)} with
-     * this context's {@link SchemaContainer} used as a schema context.</p>
+     * <p>If this node is a subschema of the schema currently being validated,
+     * the link created for it by the current {@link InstanceValidator} is
+     * returned. Otherwise, this calls {@link
+     * JsonValidatorCache#getValidator(SchemaNode)} with the current {@link
+     * SchemaContainer} used as a schema context.</p>
      *
      * @param node the node (a subnode of the schema)
      * @return a validator
      */
     public JsonValidator newValidator(final JsonNode node)
     {
-        final SchemaNode schemaNode = new SchemaNode(container, node);
+        final LinkedValidator link = current.getLink(node);
+
+        if (link != null)
+            return link;
+
+        final SchemaNode schemaNode
+            = new SchemaNode(current.getContainer(), node);
         return cache.getValidator(schemaNode);
     }
 
     @Override
     public String toString()
     {
-        return "current: " + container;
+        return "current: " + current;
     }
 }
@@ -27,7 +27,10 @@
  * org.eel.kitchen.jsonschema.util.RhinoHelper}, which is in charge of all regex
  * validation: as the standard dictates ECMA 262 regexes, using {@link
  * java.util.regex} is out of the question. See this class' description for more
- * details.</p>
+ * details. Regexes used for matching are compiled by {@link
+ * org.eel.kitchen.jsonschema.util.EcmaRegex}, which translates them to {@link
+ * java.util.regex.Pattern}s when their semantics allow it, and only falls back
+ * to Rhino otherwise.</p>
  *
  * <p>The {@link org.eel.kitchen.jsonschema.util.NodeType} enum is a critical
  * part of the code. Its ability to determine the type of a {@link
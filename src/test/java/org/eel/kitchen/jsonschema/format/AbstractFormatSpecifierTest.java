@@ -73,4 +73,17 @@ public abstract class AbstractFormatSpecifierTest
 
         assertEquals(report.isSuccess(), valid);
     }
+
+    @Test(dataProvider = "getData", invocationCount = 10, threadPoolSize = 4)
+    public void testSpecifierInFailFastMode(final JsonNode data,
+        final boolean valid)
+    {
+        final ValidationContext ctx = new ValidationContext(null);
+        final ValidationReport report = ValidationReport.failFastReport();
+
+        specifier.checkValue(fmt, ctx, report, data);
+
+        assertEquals(report.isSuccess(), valid);
+        assertEquals(report.size(), 0);
+    }
 }
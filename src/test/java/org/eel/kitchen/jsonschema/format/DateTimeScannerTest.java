@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public final class DateTimeScannerTest
+{
+    private static final DateTimeFormatter JODA
+        = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+
+    private static final String[] SEEDS = {
+        "2012-12-02T13:05:00+0100", "2001-02-12T00:00:00Z",
+        "2012-08-07T20:42:32.123Z", "2012-02-30T00:00:00+0000",
+        "2000-02-29T23:59:59-23:59", "1900-02-29T00:00:00Z",
+        "-1-1-1t1:1:1z", "123456789-12-31T00:00:00+01:02:03.456",
+        "2012-01-01T00:00:00+010203004", "2012-01-01T00:00:00+01:02:03,4",
+        "292278993-12-31T23:59:59-23:59", "-292275054-01-01T00:00:00+23:59",
+        "292278994-01-01T00:00:00Z", "0-2-29T0:0:0Z",
+        "2012-01-01T00:00:00+01:", "2012-01-01T00:00:00+0102:03",
+        "+0000000001-01-01T00:00:00Z", "+1-1-1T1:1:1+01"
+    };
+
+    private static final String ALPHABET = "0123456789-+:.,TtZz \u00E9";
+
+    @DataProvider
+    public Object[][] getData()
+    {
+        final Object[][] ret = new Object[SEEDS.length][];
+
+        for (int i = 0; i < SEEDS.length; i++)
+            ret[i] = new Object[] { SEEDS[i] };
+
+        return ret;
+    }
+
+    @Test(dataProvider = "getData")
+    public void scannerAgreesWithJodaTime(final String input)
+    {
+        assertEquals(DateTimeScanner.isValid(input), jodaAccepts(input),
+            input);
+    }
+
+    @Test
+    public void scannerAgreesWithJodaTimeOnMutatedInputs()
+    {
+        final Random random = new Random(0L);
+
+        StringBuilder sb;
+        String input;
+
+        for (int i = 0; i < 50000; i++) {
+            sb = new StringBuilder(SEEDS[random.nextInt(SEEDS.length)]);
+            for (int n = random.nextInt(3) + 1; n > 0; n--)
+                mutate(random, sb);
+            input = sb.toString();
+            assertEquals(DateTimeScanner.isValid(input), jodaAccepts(input),
+                input);
+        }
+    }
+
+    private static void mutate(final Random random, final StringBuilder sb)
+    {
+        final char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        final int index = random.nextInt(sb.length() + 1);
+
+        switch (random.nextInt(3)) {
+            case 0:
+                sb.insert(index, c);
+                break;
+            case 1:
+                if (index < sb.length())
+                    sb.deleteCharAt(index);
+                break;
+            default:
+                if (index < sb.length())
+                    sb.setCharAt(index, c);
+        }
+    }
+
+    private static boolean jodaAccepts(final String input)
+    {
+        try {
+            JODA.parseDateTime(input);
+            return true;
+        } catch (IllegalArgumentException ignored) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public final class EmailScannerTest
+{
+    @DataProvider
+    public Object[][] getData()
+    {
+        return new Object[][] {
+            { "foo@bar.com", true, true },
+            { "foo@bar", true, true },
+            { "foo", false, true },
+            { "", false, false },
+            { "a@", false, false },
+            { "@b", false, false },
+            { "a@b@c", false, false },
+            { "a.b.c@d", true, true },
+            { ".a@b", false, false },
+            { "a.@b", false, false },
+            { "a..b@c", false, false },
+            { "a!#$%&'*+/=?^_`{|}~-@c", true, true },
+            { "\"a b\"@c", true, true },
+            { "\"a\\\"b\"@c", true, true },
+            { "\"a\"", false, true },
+            { "\"a@c", false, false },
+            { "\"a\"b@c", false, false },
+            { "a b@c", false, false },
+            { " a@b", false, false },
+            { "a@b ", false, false },
+            { "a@b.c.", false, false },
+            { "a@.b", false, false },
+            { "a@b..c", false, false },
+            { "a@-b", false, false },
+            { "a@b-", false, false },
+            { "a@b-c.d", true, true },
+            { "a@b_c", false, false },
+            { "a@1.2", true, true },
+            { "a@[1.2.3.4]", true, true },
+            { "a@[IPv6:::1]", true, true },
+            { "a@[a]b", false, false },
+            { "a@[a[b]", false, false },
+            { "a@[", false, false },
+            { "\u00E9ioaj@my.name", false, false },
+            { "a@\u00E9", false, false },
+            { "Name <a@b.c>", false, false },
+            { "a@b (comment)", false, false },
+            { "a@b.c,d@e", false, false }
+        };
+    }
+
+    @Test(dataProvider = "getData")
+    public void emailAddressesAreCorrectlyRecognized(final String input,
+        final boolean withDomain, final boolean withoutDomain)
+    {
+        assertEquals(EmailScanner.isValid(input, true), withDomain, input);
+        assertEquals(EmailScanner.isValid(input, false), withoutDomain, input);
+    }
+}
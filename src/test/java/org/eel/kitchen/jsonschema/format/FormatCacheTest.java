@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.eel.kitchen.jsonschema.util.NodeType;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+public final class FormatCacheTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private FormatCache cache;
+    private ValidationContext ctx;
+
+    @BeforeMethod
+    public void init()
+    {
+        cache = new FormatCache(100L);
+        ctx = new ValidationContext(null);
+    }
+
+    @Test
+    public void cachedResultsAreTheSameAsUncachedResults()
+    {
+        final FormatSpecifier specifier = EmailFormatSpecifier.getInstance();
+        final JsonNode value = factory.textNode("foo");
+
+        final ValidationReport expected = new ValidationReport();
+        specifier.validate("email", ctx, expected, value);
+
+        ValidationReport report;
+
+        for (int i = 0; i < 2; i++) {
+            report = new ValidationReport();
+            cache.validate("email", specifier, ctx, report, value);
+            assertEquals(report.getMessages(), expected.getMessages());
+        }
+
+        assertEquals(cache.stats().missCount(), 1L);
+        assertEquals(cache.stats().hitCount(), 1L);
+    }
+
+    @Test
+    public void repeatedValuesAreOnlyCheckedOnce()
+    {
+        final CountingSpecifier specifier
+            = new CountingSpecifier(NodeType.STRING);
+
+        for (int i = 0; i < 10; i++) {
+            cache.validate("fmt", specifier, ctx, new ValidationReport(),
+                factory.textNode("a"));
+            cache.validate("fmt", specifier, ctx, new ValidationReport(),
+                factory.textNode("b"));
+        }
+
+        assertEquals(specifier.count, 2);
+        assertEquals(cache.size(), 2L);
+    }
+
+    @Test
+    public void specifiersWithTheSameNameDoNotShareResults()
+    {
+        final CountingSpecifier specifier1
+            = new CountingSpecifier(NodeType.STRING);
+        final CountingSpecifier specifier2
+            = new CountingSpecifier(NodeType.STRING);
+        final JsonNode value = factory.textNode("a");
+
+        cache.validate("fmt", specifier1, ctx, new ValidationReport(), value);
+        cache.validate("fmt", specifier2, ctx, new ValidationReport(), value);
+
+        assertEquals(specifier1.count, 1);
+        assertEquals(specifier2.count, 1);
+    }
+
+    @Test
+    public void failingSpecifiersLeaveNoEntry()
+    {
+        final FormatSpecifier specifier = new FormatSpecifier(NodeType.STRING)
+        {
+            @Override
+            public void checkValue(final String fmt,
+                final ValidationContext ctx, final ValidationReport report,
+                final JsonNode value)
+            {
+                throw new IllegalStateException("oops");
+            }
+        };
+
+        try {
+            cache.validate("fmt", specifier, ctx, new ValidationReport(),
+                factory.textNode("a"));
+            fail("No exception thrown!");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "oops");
+        }
+
+        assertEquals(cache.size(), 0L);
+    }
+
+    @Test
+    public void nonStringValuesAreNotCached()
+    {
+        final CountingSpecifier specifier
+            = new CountingSpecifier(NodeType.INTEGER);
+
+        for (int i = 0; i < 2; i++)
+            cache.validate("fmt", specifier, ctx, new ValidationReport(),
+                factory.numberNode(1));
+
+        assertEquals(specifier.count, 2);
+        assertEquals(cache.size(), 0L);
+    }
+
+    @Test
+    public void cachedFailuresAreRecordedInFailFastReports()
+    {
+        final FormatSpecifier specifier = EmailFormatSpecifier.getInstance();
+        final JsonNode value = factory.textNode("foo");
+
+        cache.validate("email", specifier, ctx, new ValidationReport(), value);
+
+        final ValidationReport report = ValidationReport.failFastReport();
+        cache.validate("email", specifier, ctx, report, value);
+
+        assertFalse(report.isSuccess());
+        assertEquals(report.size(), 0);
+    }
+
+    @Test
+    public void factoryExposesCacheStatistics()
+        throws IOException
+    {
+        final JsonSchemaFactory schemaFactory = new JsonSchemaFactory.Builder()
+            .enableFormatCache(100L).build();
+        final JsonSchema schema = schemaFactory.fromSchema(JsonLoader
+            .fromString("{\"items\":{\"format\":\"host-name\"}}"));
+        final JsonNode instance
+            = JsonLoader.fromString("[\"a.b\",\"c\",\"a.b\",\"c\"]");
+
+        assertEquals(schema.validate(instance).getMessages().size(), 2);
+        assertEquals(schemaFactory.getFormatCacheStats().missCount(), 2L);
+        assertEquals(schemaFactory.getFormatCacheStats().hitCount(), 2L);
+
+        assertEquals(JsonSchemaFactory.defaultFactory().getFormatCacheStats()
+            .requestCount(), 0L);
+    }
+
+    private static final class CountingSpecifier
+        extends FormatSpecifier
+    {
+        private int count = 0;
+
+        private CountingSpecifier(final NodeType type)
+        {
+            super(type);
+        }
+
+        @Override
+        public void checkValue(final String fmt, final ValidationContext ctx,
+            final ValidationReport report, final JsonNode value)
+        {
+            count++;
+        }
+    }
+}
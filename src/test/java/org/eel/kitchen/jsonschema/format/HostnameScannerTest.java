@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+import com.google.common.net.InternetDomainName;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public final class HostnameScannerTest
+{
+    private static final String[] SEEDS = {
+        "foo", "foo.bar", "a.b.c.com", "x-y.z_w.net", "1.2.3.4", "a.1b",
+        "ex\u00E4mple.com", "a\u3002b", "a\uFF0Eb.", "a..b", "-a.b", "a-.b",
+        "_a.b", "a.b_", "a.b.", ".a", ".", "", "a.\u0663b", "a.b-c",
+        "foo.bar~",
+        "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.net",
+        "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.net"
+    };
+
+    private static final String ALPHABET
+        = "ab1-_.\u3002\uFF0E\uFF61\u00E9\u0663Z ~@";
+
+    @DataProvider
+    public Object[][] getData()
+    {
+        final Object[][] ret = new Object[SEEDS.length][];
+
+        for (int i = 0; i < SEEDS.length; i++)
+            ret[i] = new Object[] { SEEDS[i] };
+
+        return ret;
+    }
+
+    @Test(dataProvider = "getData")
+    public void scannerAgreesWithGuava(final String input)
+    {
+        checkInput(input);
+    }
+
+    @Test
+    public void scannerAgreesWithGuavaOnLongNames()
+    {
+        final StringBuilder sb = new StringBuilder("a");
+
+        for (int i = 0; i < 300; i++) {
+            sb.append(i % 2 == 0 ? '.' : 'b');
+            checkInput(sb.toString());
+            checkInput(sb.toString() + '.');
+        }
+    }
+
+    @Test
+    public void scannerAgreesWithGuavaOnMutatedInputs()
+    {
+        final Random random = new Random(0L);
+
+        StringBuilder sb;
+
+        for (int i = 0; i < 50000; i++) {
+            sb = new StringBuilder(SEEDS[random.nextInt(SEEDS.length)]);
+            for (int n = random.nextInt(3) + 1; n > 0; n--)
+                mutate(random, sb);
+            checkInput(sb.toString());
+        }
+    }
+
+    private static void checkInput(final String input)
+    {
+        final int labels = HostnameScanner.labelCount(input);
+
+        InternetDomainName name = null;
+
+        try {
+            name = InternetDomainName.from(input);
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        if (name == null) {
+            assertEquals(labels, -1, input);
+            return;
+        }
+
+        assertEquals(labels, name.parts().size(), input);
+        assertEquals(labels > 1, name.hasParent(), input);
+    }
+
+    private static void mutate(final Random random, final StringBuilder sb)
+    {
+        final char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        final int index = random.nextInt(sb.length() + 1);
+
+        switch (random.nextInt(3)) {
+            case 0:
+                sb.insert(index, c);
+                break;
+            case 1:
+                if (index < sb.length())
+                    sb.deleteCharAt(index);
+                break;
+            default:
+                if (index < sb.length())
+                    sb.setCharAt(index, c);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.format;
+
+import com.google.common.net.InetAddresses;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public final class InetAddressScannerTest
+{
+    private static final String[] SEEDS = {
+        "10.121.13.3", "256.1.1.1", "-1.1.1.1", "slashdot.org",
+        "ea31:aea::222", "fffg::1", "::", "::1", "1::", "1:2:3:4:5:6:7:8",
+        "1:2:3:4:5:6:7::", "::2:3:4:5:6:7:8", "1:2:3:4:5:6:1.2.3.4",
+        "::1.2.3.4", "::ffff:1.2.3.4", "::ffff:102:304", "0:0:0:0:0:ffff::",
+        "1.2.3.04", "00001::", "\u0661\u0662.\u0663.\u0664.\u0665", "1::2::3",
+        ":1::2", "1::2:", "1:2:3:4:5:6:7:8:9", "::ffff:0.0.0.0",
+        "0::FFFF:1:2"
+    };
+
+    private static final String ALPHABET = "0123456789abcdefgF.:\u0663 ";
+
+    @DataProvider
+    public Object[][] getData()
+    {
+        final Object[][] ret = new Object[SEEDS.length][];
+
+        for (int i = 0; i < SEEDS.length; i++)
+            ret[i] = new Object[] { SEEDS[i] };
+
+        return ret;
+    }
+
+    @Test(dataProvider = "getData")
+    public void scannerAgreesWithGuava(final String input)
+    {
+        checkInput(input);
+    }
+
+    @Test
+    public void scannerAgreesWithGuavaOnMutatedInputs()
+    {
+        final Random random = new Random(0L);
+
+        StringBuilder sb;
+
+        for (int i = 0; i < 50000; i++) {
+            sb = new StringBuilder(SEEDS[random.nextInt(SEEDS.length)]);
+            for (int n = random.nextInt(3) + 1; n > 0; n--)
+                mutate(random, sb);
+            checkInput(sb.toString());
+        }
+    }
+
+    private static void checkInput(final String input)
+    {
+        assertEquals(InetAddressScanner.isIPv4(input), guavaAccepts(input, 4),
+            input);
+        assertEquals(InetAddressScanner.isIPv6(input),
+            guavaAccepts(input, 16), input);
+    }
+
+    private static void mutate(final Random random, final StringBuilder sb)
+    {
+        final char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        final int index = random.nextInt(sb.length() + 1);
+
+        switch (random.nextInt(3)) {
+            case 0:
+                sb.insert(index, c);
+                break;
+            case 1:
+                if (index < sb.length())
+                    sb.deleteCharAt(index);
+                break;
+            default:
+                if (index < sb.length())
+                    sb.setCharAt(index, c);
+        }
+    }
+
+    private static boolean guavaAccepts(final String input, final int length)
+    {
+        return InetAddresses.isInetAddress(input)
+            && InetAddresses.forString(input).getAddress().length == length;
+    }
+}
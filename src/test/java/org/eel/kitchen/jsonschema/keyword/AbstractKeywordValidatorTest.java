@@ -83,6 +83,7 @@ public abstract class AbstractKeywordValidatorTest
         final ValidationReport report = jsonSchema.validate(data);
 
         assertEquals(report.isSuccess(), valid);
+        assertEquals(jsonSchema.isValid(data), valid);
 
         if (valid)
             return;
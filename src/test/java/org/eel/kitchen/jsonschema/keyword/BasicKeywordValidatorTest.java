@@ -121,4 +121,12 @@ public final class BasicKeywordValidatorTest
         validator.validateInstance(context, report, instance);
         verify(validator, never()).validate(context, report, instance);
     }
+
+    @Test(dataProvider = "ignoredInstances")
+    public void typedValidationDoesNotCheckInstanceType(
+        final JsonNode instance)
+    {
+        validator.validateTypedInstance(context, report, instance);
+        verify(validator, times(1)).validate(context, report, instance);
+    }
 }
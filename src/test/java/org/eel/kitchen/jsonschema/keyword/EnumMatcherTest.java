@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public final class EnumMatcherTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    @Test
+    public void largeCodeListsAreMatched()
+    {
+        final ArrayNode enumNode = factory.arrayNode();
+
+        for (int i = 0; i < 5000; i++)
+            enumNode.add(String.format("C%04d", i));
+
+        final EnumMatcher matcher = new EnumMatcher(enumNode);
+
+        assertTrue(matcher.contains(factory.textNode("C0000")));
+        assertTrue(matcher.contains(factory.textNode("C4999")));
+        assertFalse(matcher.contains(factory.textNode("C5000")));
+        assertFalse(matcher.contains(factory.numberNode(0)));
+        assertFalse(matcher.contains(factory.objectNode()));
+    }
+
+    @Test
+    public void zeroIsHandled()
+        throws IOException
+    {
+        final EnumMatcher matcher
+            = new EnumMatcher(JsonLoader.fromString("[0, 1, -1]"));
+
+        assertTrue(matcher.contains(factory.numberNode(0)));
+        assertTrue(matcher.contains(factory.numberNode(-1)));
+        assertFalse(matcher.contains(factory.numberNode(2)));
+        assertFalse(new EnumMatcher(JsonLoader.fromString("[1]"))
+            .contains(factory.numberNode(0)));
+    }
+
+    @Test
+    public void resultsAreTheSameAsWithNodeEquality()
+    {
+        final Random random = new Random(0L);
+
+        ArrayNode enumNode;
+        Set<JsonNode> expected;
+        EnumMatcher matcher;
+        JsonNode instance;
+
+        for (int i = 0; i < 1000; i++) {
+            enumNode = factory.arrayNode();
+            for (int n = random.nextInt(30) + 1; n > 0; n--)
+                enumNode.add(randomNode(random, 2));
+            expected = ImmutableSet.copyOf(enumNode);
+            matcher = new EnumMatcher(enumNode);
+            for (int n = 0; n < 50; n++) {
+                instance = randomNode(random, 2);
+                assertEquals(matcher.contains(instance),
+                    expected.contains(instance), instance + " in " + enumNode);
+            }
+            for (final JsonNode value: enumNode)
+                assertTrue(matcher.contains(value));
+        }
+    }
+
+    private static JsonNode randomNode(final Random random, final int depth)
+    {
+        switch (random.nextInt(depth == 0 ? 9 : 11)) {
+            case 0:
+                return factory.numberNode(random.nextInt(5) - 2);
+            case 1:
+                return factory.numberNode((long) random.nextInt(5) - 2);
+            case 2:
+                return factory.numberNode(BigDecimal.valueOf(
+                    random.nextInt(5), random.nextInt(2)));
+            case 3:
+                return factory.numberNode(random.nextInt(3) * 0.5);
+            case 4:
+                return factory.numberNode(
+                    BigInteger.valueOf(random.nextInt(3)));
+            case 5:
+                return factory.textNode(String.valueOf(random.nextInt(5)));
+            case 6:
+                return factory.booleanNode(random.nextBoolean());
+            case 7:
+                return factory.nullNode();
+            case 8:
+                return factory.textNode("");
+            case 9:
+                final ArrayNode array = factory.arrayNode();
+                for (int n = random.nextInt(3); n > 0; n--)
+                    array.add(randomNode(random, depth - 1));
+                return array;
+            default:
+                final ObjectNode object = factory.objectNode();
+                for (int n = random.nextInt(3); n > 0; n--)
+                    object.put(String.valueOf(random.nextInt(2)),
+                        randomNode(random, depth - 1));
+                return object;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.eel.kitchen.jsonschema.report.Message;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public final class FusedNumericKeywordValidatorTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private static final Set<String> KEYWORDS
+        = ImmutableSet.of("minimum", "maximum", "divisibleBy");
+
+    private final ValidationContext context = new ValidationContext(null);
+
+    @Test
+    public void messagesAreTheSameAsWithSeparateValidators()
+    {
+        final Random random = new Random(0L);
+
+        ObjectNode schema;
+        Set<String> keywords;
+        KeywordValidator fused;
+        Set<KeywordValidator> separate;
+        JsonNode instance;
+
+        for (int i = 0; i < 2000; i++) {
+            schema = randomSchema(random);
+            keywords = Sets.newHashSet(schema.fieldNames());
+            keywords.retainAll(KEYWORDS);
+            fused = new FusedNumericKeywordValidator(schema, keywords);
+            separate = separateValidators(schema);
+            for (int j = 0; j < 20; j++) {
+                instance = randomNumber(random);
+                assertEquals(messages(fused, instance),
+                    messages(separate, instance), schema + " / " + instance);
+            }
+        }
+    }
+
+    private Set<Message> messages(final KeywordValidator validator,
+        final JsonNode instance)
+    {
+        return messages(ImmutableSet.of(validator), instance);
+    }
+
+    private Set<Message> messages(final Set<KeywordValidator> validators,
+        final JsonNode instance)
+    {
+        final ValidationReport report = new ValidationReport();
+
+        for (final KeywordValidator validator: validators)
+            validator.validateInstance(context, report, instance);
+
+        final List<Message> list = report.getCurrentMessages();
+        return ImmutableSet.copyOf(list);
+    }
+
+    private static Set<KeywordValidator> separateValidators(
+        final JsonNode schema)
+    {
+        final ImmutableSet.Builder<KeywordValidator> builder
+            = ImmutableSet.builder();
+
+        if (schema.has("minimum"))
+            builder.add(new MinimumKeywordValidator(schema));
+        if (schema.has("maximum"))
+            builder.add(new MaximumKeywordValidator(schema));
+        if (schema.has("divisibleBy"))
+            builder.add(new DivisibleByKeywordValidator(schema));
+
+        return builder.build();
+    }
+
+    private static ObjectNode randomSchema(final Random random)
+    {
+        final ObjectNode schema = factory.objectNode();
+
+        if (random.nextBoolean()) {
+            schema.put("minimum", randomNumber(random));
+            schema.put("exclusiveMinimum", random.nextBoolean());
+        }
+        if (random.nextBoolean()) {
+            schema.put("maximum", randomNumber(random));
+            schema.put("exclusiveMaximum", random.nextBoolean());
+        }
+        if (random.nextBoolean())
+            schema.put("divisibleBy", randomDivisor(random));
+        if (schema.size() == 0)
+            schema.put("minimum", randomNumber(random));
+
+        return schema;
+    }
+
+    private static JsonNode randomNumber(final Random random)
+    {
+        switch (random.nextInt(4)) {
+            case 0:
+                return factory.numberNode(random.nextInt(21) - 10);
+            case 1:
+                return factory.numberNode((long) Integer.MAX_VALUE
+                    + random.nextInt(3));
+            case 2:
+                return factory.numberNode(BigDecimal.valueOf(
+                    random.nextInt(201) - 100, random.nextInt(3)));
+            default:
+                return factory.numberNode((random.nextInt(41) - 20) / 4.0);
+        }
+    }
+
+    private static JsonNode randomDivisor(final Random random)
+    {
+        switch (random.nextInt(6)) {
+            case 0:
+                return factory.numberNode(random.nextInt(5) + 1);
+            case 1:
+                return factory.numberNode(new BigDecimal("0.5"));
+            case 2:
+                return factory.numberNode(new BigDecimal("0.01"));
+            case 3:
+                return factory.numberNode(new BigDecimal("1.50"));
+            case 4:
+                return factory.numberNode(new BigDecimal("2.0"));
+            default:
+                return factory.numberNode(0.25);
+        }
+    }
+}
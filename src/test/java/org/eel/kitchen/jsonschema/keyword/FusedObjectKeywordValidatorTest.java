@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.eel.kitchen.jsonschema.report.Message;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public final class FusedObjectKeywordValidatorTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private static final Set<String> KEYWORDS = ImmutableSet.of("properties",
+        "additionalProperties", "dependencies");
+
+    private static final String[] NAMES
+        = { "a", "b", "c", "d", "x1", "x2", "y1", "zz" };
+
+    private final ValidationContext context = new ValidationContext(null);
+
+    @Test
+    public void messagesAreTheSameAsWithSeparateValidators()
+    {
+        final Random random = new Random(0L);
+
+        ObjectNode schema;
+        Set<String> keywords;
+        KeywordValidator fused;
+        Set<KeywordValidator> separate;
+        JsonNode instance;
+
+        for (int i = 0; i < 2000; i++) {
+            schema = randomSchema(random);
+            keywords = Sets.newHashSet(schema.fieldNames());
+            keywords.retainAll(KEYWORDS);
+            fused = new FusedObjectKeywordValidator(schema, keywords);
+            separate = separateValidators(schema);
+            for (int j = 0; j < 20; j++) {
+                instance = randomObject(random);
+                assertEquals(messages(ImmutableSet.of(fused), instance),
+                    messages(separate, instance), schema + " / " + instance);
+            }
+        }
+    }
+
+    @Test
+    public void largeObjectsAreValidated()
+    {
+        final ObjectNode schema = factory.objectNode();
+        final ObjectNode properties = schema.putObject("properties");
+        final ObjectNode instance = factory.objectNode();
+
+        for (int i = 0; i < 600; i++) {
+            properties.putObject("p" + i).put("required", i % 7 == 0);
+            if (i != 42)
+                instance.put("p" + i, i);
+        }
+        schema.put("additionalProperties", false);
+        instance.put("extra", 0);
+
+        final KeywordValidator validator = new FusedObjectKeywordValidator(
+            schema, ImmutableSet.of("properties", "additionalProperties"));
+        final Set<Message> messages
+            = messages(ImmutableSet.of(validator), instance);
+
+        assertEquals(messages, messages(separateValidators(schema), instance));
+        assertEquals(messages.size(), 2);
+    }
+
+    private Set<Message> messages(final Set<KeywordValidator> validators,
+        final JsonNode instance)
+    {
+        final ValidationReport report = new ValidationReport();
+
+        for (final KeywordValidator validator: validators)
+            validator.validateInstance(context, report, instance);
+
+        return ImmutableSet.copyOf(report.getCurrentMessages());
+    }
+
+    private static Set<KeywordValidator> separateValidators(
+        final JsonNode schema)
+    {
+        final ImmutableSet.Builder<KeywordValidator> builder
+            = ImmutableSet.builder();
+
+        if (schema.has("properties"))
+            builder.add(new PropertiesKeywordValidator(schema));
+        if (schema.has("additionalProperties"))
+            builder.add(new AdditionalPropertiesKeywordValidator(schema));
+        if (schema.has("dependencies"))
+            builder.add(new DependenciesKeywordValidator(schema));
+
+        return builder.build();
+    }
+
+    private static ObjectNode randomSchema(final Random random)
+    {
+        final ObjectNode schema = factory.objectNode();
+
+        if (random.nextBoolean()) {
+            final ObjectNode properties = schema.putObject("properties");
+            for (final String name: NAMES)
+                if (random.nextInt(3) == 0)
+                    properties.putObject(name)
+                        .put("required", random.nextBoolean());
+        }
+
+        if (random.nextBoolean())
+            schema.put("additionalProperties", random.nextBoolean());
+
+        if (random.nextBoolean())
+            schema.putObject("patternProperties").putObject("^x");
+
+        if (random.nextBoolean()) {
+            final ObjectNode dependencies = schema.putObject("dependencies");
+            ArrayNode array;
+            for (final String name: NAMES) {
+                if (random.nextInt(4) != 0)
+                    continue;
+                if (random.nextBoolean()) {
+                    dependencies.put(name, randomName(random));
+                    continue;
+                }
+                array = dependencies.putArray(name);
+                array.add(randomName(random));
+                for (final String dep: NAMES)
+                    if (random.nextInt(3) == 0)
+                        array.add(dep);
+            }
+        }
+
+        return schema;
+    }
+
+    private static JsonNode randomObject(final Random random)
+    {
+        final ObjectNode ret = factory.objectNode();
+
+        for (final String name: NAMES)
+            if (random.nextBoolean())
+                ret.put(name, 1);
+
+        if (random.nextInt(4) == 0)
+            ret.put("other", 1);
+
+        return ret;
+    }
+
+    private static String randomName(final Random random)
+    {
+        return NAMES[random.nextInt(NAMES.length)];
+    }
+}
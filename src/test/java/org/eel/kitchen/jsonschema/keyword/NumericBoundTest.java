@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public final class NumericBoundTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private static final List<JsonNode> BOUNDS = ImmutableList.<JsonNode>of(
+        factory.numberNode(0),
+        factory.numberNode(-3),
+        factory.numberNode(Long.MAX_VALUE),
+        factory.numberNode(Long.MIN_VALUE),
+        factory.numberNode((1L << 53) + 1),
+        factory.numberNode(BigInteger.ONE.shiftLeft(70)),
+        factory.numberNode(new BigDecimal("0.1")),
+        factory.numberNode(new BigDecimal("-2.50")),
+        factory.numberNode(new BigDecimal("9007199254740993.0")),
+        factory.numberNode(BigDecimal.ONE.scaleByPowerOfTen(-400)),
+        factory.numberNode(BigDecimal.ONE.scaleByPowerOfTen(400)),
+        factory.numberNode(Math.scalb(1.0, -30)),
+        factory.numberNode(0.1)
+    );
+
+    @Test
+    public void comparisonsAreTheSameAsWithBigDecimal()
+    {
+        final Random random = new Random(0L);
+
+        NumericBound bound;
+        JsonNode instance;
+        int expected;
+
+        for (final JsonNode node: BOUNDS) {
+            bound = new NumericBound(node);
+            for (int i = 0; i < 20000; i++) {
+                instance = randomInstance(random, node);
+                expected = Integer.signum(instance.decimalValue()
+                    .compareTo(node.decimalValue()));
+                assertEquals(Integer.signum(bound.compare(instance)), expected,
+                    instance + " vs " + node);
+            }
+        }
+    }
+
+    @Test
+    public void simpleComparisonsWork()
+    {
+        final NumericBound bound = new NumericBound(factory.numberNode(2));
+
+        assertTrue(bound.isLong());
+        assertEquals(bound.longValue(), 2L);
+        assertTrue(bound.compare(factory.numberNode(1)) < 0);
+        assertEquals(bound.compare(factory.numberNode(2.0)), 0);
+        assertTrue(bound.compare(factory.numberNode(new BigDecimal("2.01")))
+            > 0);
+    }
+
+    @Test
+    public void integerMultiplesAreInLowestTerms()
+    {
+        assertEquals(integerMultiple(factory.numberNode(3)), 3L);
+        assertEquals(integerMultiple(factory.numberNode(0.25)), 1L);
+        assertEquals(integerMultiple(factory.numberNode(
+            new BigDecimal("1.50"))), 3L);
+        assertEquals(integerMultiple(factory.numberNode(
+            new BigDecimal("0.12"))), 3L);
+        assertEquals(integerMultiple(factory.numberNode(
+            new BigDecimal("4.0"))), 4L);
+        assertEquals(integerMultiple(factory.numberNode(
+            new BigDecimal("1E+3"))), 1000L);
+        assertEquals(integerMultiple(factory.numberNode(
+            BigDecimal.ONE.scaleByPowerOfTen(400))), 0L);
+        assertEquals(integerMultiple(factory.numberNode(
+            BigDecimal.valueOf(Long.MAX_VALUE, 2).add(BigDecimal.ONE))), 0L);
+    }
+
+    private static long integerMultiple(final JsonNode node)
+    {
+        return new NumericBound(node).integerMultiple();
+    }
+
+    /*
+     * Build an instance close to the given bound, using all numeric node
+     * types
+     */
+    private static JsonNode randomInstance(final Random random,
+        final JsonNode bound)
+    {
+        final BigDecimal base = bound.decimalValue();
+        final long l;
+        double d;
+
+        switch (random.nextInt(7)) {
+            case 0:
+                return factory.numberNode(random.nextInt());
+            case 1:
+                l = base.setScale(0, RoundingMode.FLOOR).longValue();
+                return factory.numberNode(l + random.nextInt(5) - 2);
+            case 2:
+                return factory.numberNode(random.nextLong() >> random
+                    .nextInt(64));
+            case 3:
+                // JSON has no infinities or NaN
+                d = base.doubleValue()
+                    + (random.nextInt(5) - 2) * Math.ulp(base.doubleValue());
+                if (Double.isNaN(d) || Double.isInfinite(d))
+                    d = 0.0;
+                return factory.numberNode(d);
+            case 4:
+                return factory.numberNode(base.add(BigDecimal.valueOf(
+                    random.nextInt(5) - 2, random.nextInt(20))));
+            case 5:
+                return factory.numberNode(base.toBigInteger()
+                    .add(BigInteger.valueOf(random.nextInt(5) - 2)));
+            default:
+                return factory.numberNode(random.nextDouble() * 10.0 - 5.0);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.google.common.collect.Lists;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaException;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.*;
+
+public final class BatchValidationTest
+{
+    private ExecutorService executor;
+    private JsonSchema schema;
+    private List<JsonNode> instances;
+
+    @BeforeClass
+    public void init()
+        throws IOException, JsonSchemaException
+    {
+        executor = Executors.newFixedThreadPool(4);
+
+        schema = JsonSchemaFactory.defaultFactory()
+            .fromURI("resource:/schema-draftv3.json");
+
+        final JsonNode googleAPI
+            = JsonLoader.fromResource("/other/google-json-api.json");
+
+        instances = Lists.newArrayList(googleAPI.get("schemas"));
+
+        // Insert some invalid schemas
+        final JsonNodeFactory factory = JsonNodeFactory.instance;
+        instances.add(3, factory.objectNode().put("type", 1));
+        instances.add(factory.objectNode().put("minItems", -1));
+    }
+
+    @AfterClass
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    public void sequentialBatchValidationPreservesOrder()
+    {
+        checkReports(schema.validateAll(instances));
+    }
+
+    @Test
+    public void parallelBatchValidationPreservesOrder()
+    {
+        checkReports(schema.validateAll(instances, executor));
+    }
+
+    @Test
+    public void emptyBatchYieldsNoReports()
+    {
+        final List<JsonNode> empty = Lists.newArrayList();
+
+        assertTrue(schema.validateAll(empty).isEmpty());
+        assertTrue(schema.validateAll(empty, executor).isEmpty());
+    }
+
+    private void checkReports(final List<ValidationReport> reports)
+    {
+        assertEquals(reports.size(), instances.size());
+
+        ValidationReport expected;
+
+        for (int i = 0; i < reports.size(); i++) {
+            expected = schema.validate(instances.get(i));
+            assertEquals(reports.get(i).getMessages(), expected.getMessages());
+        }
+
+        assertFalse(reports.get(3).isSuccess());
+        assertFalse(reports.get(reports.size() - 1).isSuccess());
+    }
+}
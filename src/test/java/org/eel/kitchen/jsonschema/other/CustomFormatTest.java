@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.eel.kitchen.jsonschema.format.FormatBundle;
+import org.eel.kitchen.jsonschema.format.FormatSpecifier;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.report.Message;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.eel.kitchen.jsonschema.util.NodeType;
+import org.eel.kitchen.jsonschema.validator.ValidationContext;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+public final class CustomFormatTest
+{
+    private static final FormatSpecifier UPPERCASE = new FormatSpecifier(
+        NodeType.STRING)
+    {
+        @Override
+        public void checkValue(final String fmt, final ValidationContext ctx,
+            final ValidationReport report, final JsonNode value)
+        {
+            final String s = value.textValue();
+
+            if (s.equals(s.toUpperCase()) || report.failFast())
+                return;
+
+            final Message.Builder msg = newMsg(fmt)
+                .setMessage("string is not uppercase").addInfo("value", value);
+            report.addMessage(msg.build());
+        }
+    };
+
+    @Test
+    public void registeredFormatsAreUsed()
+        throws IOException
+    {
+        final JsonSchemaFactory factory = new JsonSchemaFactory.Builder()
+            .registerFormat("uppercase", UPPERCASE).build();
+        final JsonSchema schema = factory.fromSchema(
+            JsonLoader.fromString("{\"format\":\"uppercase\"}"));
+
+        assertTrue(schema.validate(JsonLoader.fromString("\"FOO\""))
+            .isSuccess());
+        assertFalse(schema.validate(JsonLoader.fromString("\"foo\""))
+            .isSuccess());
+        assertFalse(schema.isValid(JsonLoader.fromString("\"foo\"")));
+    }
+
+    @Test
+    public void registeredFormatsOverrideBuiltinFormats()
+        throws IOException
+    {
+        final JsonSchemaFactory factory = new JsonSchemaFactory.Builder()
+            .registerFormat("email", UPPERCASE).build();
+        final JsonSchema schema = factory.fromSchema(
+            JsonLoader.fromString("{\"format\":\"email\"}"));
+
+        assertTrue(schema.isValid(JsonLoader.fromString("\"FOO\"")));
+        assertFalse(schema.isValid(JsonLoader.fromString("\"a@b.c\"")));
+    }
+
+    @Test
+    public void unregisteredFormatsAreIgnored()
+        throws IOException
+    {
+        final JsonSchemaFactory factory = new JsonSchemaFactory.Builder()
+            .unregisterFormat("email").build();
+        final JsonSchema schema = factory.fromSchema(
+            JsonLoader.fromString("{\"format\":\"email\"}"));
+
+        assertTrue(schema.isValid(JsonLoader.fromString("\"foo\"")));
+        assertFalse(JsonSchemaFactory.defaultFactory().fromSchema(
+            JsonLoader.fromString("{\"format\":\"email\"}"))
+            .isValid(JsonLoader.fromString("\"foo\"")));
+    }
+
+    @Test
+    public void formatBundlesCanBeReplaced()
+        throws IOException
+    {
+        final JsonSchemaFactory factory = new JsonSchemaFactory.Builder()
+            .withFormatBundle(FormatBundle.newBundle()).build();
+        final JsonSchema schema = factory.fromSchema(
+            JsonLoader.fromString("{\"format\":\"ip-address\"}"));
+
+        assertTrue(schema.isValid(JsonLoader.fromString("\"foo\"")));
+    }
+
+    @Test
+    public void builderChangesAfterBuildDoNotAffectFactories()
+        throws IOException
+    {
+        final JsonSchemaFactory.Builder builder
+            = new JsonSchemaFactory.Builder();
+        final JsonSchemaFactory factory = builder.build();
+
+        builder.registerFormat("email", UPPERCASE);
+
+        final JsonSchema schema = factory.fromSchema(
+            JsonLoader.fromString("{\"format\":\"email\"}"));
+
+        assertTrue(schema.isValid(JsonLoader.fromString("\"a@b.c\"")));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.eel.kitchen.jsonschema.util.MappedFileInputStream;
+import org.eel.kitchen.jsonschema.util.ProgressListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public final class MappedFileValidationTest
+{
+    private static final JsonSchemaFactory factory
+        = JsonSchemaFactory.defaultFactory();
+
+    private File file;
+
+    @BeforeMethod
+    public void createFile()
+        throws IOException
+    {
+        file = File.createTempFile("mapped", ".json");
+    }
+
+    @AfterMethod
+    public void deleteFile()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void streamReadsTheWholeFile()
+        throws IOException
+    {
+        final byte[] contents = new byte[100000];
+
+        for (int i = 0; i < contents.length; i++)
+            contents[i] = (byte) i;
+
+        Files.write(contents, file);
+
+        final InputStream in = new MappedFileInputStream(file);
+
+        try {
+            assertEquals(in.read(), 0);
+            assertEquals(in.skip(9L), 9L);
+            assertEquals(in.available(), contents.length - 10);
+            final byte[] rest = ByteStreams.toByteArray(in);
+            assertEquals(rest.length, contents.length - 10);
+            assertEquals(rest[0], contents[10]);
+            assertEquals(rest[rest.length - 1], contents[contents.length - 1]);
+            assertEquals(in.read(), -1);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void mappedValidationGivesTheSameResultAsTreeValidation()
+        throws IOException
+    {
+        final JsonNode schemaNode = JsonLoader.fromString("{\"items\":"
+            + "{\"properties\":{\"a\":{\"type\":\"integer\"}}}}");
+        final JsonSchema schema = factory.fromSchema(schemaNode);
+
+        final StringBuilder sb = new StringBuilder("[");
+
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(i % 7 == 0 ? "{\"a\":\"x\"}" : "{\"a\":1}");
+        }
+
+        sb.append(']');
+
+        Files.write(sb.toString(), file, Charsets.UTF_8);
+
+        final List<Long> progress = Lists.newArrayList();
+        final ProgressListener listener = new ProgressListener()
+        {
+            @Override
+            public void onProgress(final long bytesRead, final long totalBytes)
+            {
+                assertEquals(totalBytes, file.length());
+                progress.add(bytesRead);
+            }
+        };
+
+        final ValidationReport expected
+            = schema.validate(JsonLoader.fromFile(file));
+        final ValidationReport actual = schema.validate(file, listener);
+
+        assertFalse(actual.isSuccess());
+        assertEquals(actual.asJsonObject(), expected.asJsonObject());
+        assertEquals(progress, Lists.newArrayList(file.length()));
+    }
+
+    @Test
+    public void malformedFileIsReported()
+        throws IOException
+    {
+        Files.write("{\"a\":", file, Charsets.UTF_8);
+
+        try {
+            factory.fromSchema(JsonLoader.fromString("{}")).validate(file);
+            fail("No exception thrown!");
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public final class MessageLimitsTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private JsonNode schema;
+    private JsonNode instance;
+
+    @BeforeClass
+    public void initData()
+    {
+        final ObjectNode items = factory.objectNode();
+        items.put("type", "string");
+        items.put("minLength", 2);
+        items.put("pattern", "^a");
+
+        final ObjectNode node = factory.objectNode();
+        node.put("items", items);
+        schema = node;
+
+        final ArrayNode array = factory.arrayNode();
+        for (int i = 0; i < 100; i++)
+            array.add("b");
+
+        instance = array;
+    }
+
+    @Test
+    public void unlimitedReportCollectsAllMessages()
+    {
+        final JsonSchema jsonSchema
+            = JsonSchemaFactory.defaultFactory().fromSchema(schema);
+
+        final ValidationReport report = jsonSchema.validate(instance);
+
+        assertEquals(report.size(), 200);
+        assertFalse(report.isTruncated());
+    }
+
+    @Test
+    public void validationStopsWhenMaxMessagesIsReached()
+    {
+        final JsonSchemaFactory schemaFactory = new JsonSchemaFactory.Builder()
+            .setMaxMessages(10).build();
+        final JsonSchema jsonSchema = schemaFactory.fromSchema(schema);
+
+        final ValidationReport report = jsonSchema.validate(instance);
+
+        assertFalse(report.isSuccess());
+        assertEquals(report.size(), 10);
+    }
+
+    @Test
+    public void messagesPerPathAreLimited()
+    {
+        final JsonSchemaFactory schemaFactory = new JsonSchemaFactory.Builder()
+            .setMaxMessagesPerPath(1).build();
+        final JsonSchema jsonSchema = schemaFactory.fromSchema(schema);
+
+        final ValidationReport report = jsonSchema.validate(instance);
+
+        assertEquals(report.size(), 100);
+        assertTrue(report.isTruncated());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void maxMessagesMustBePositive()
+    {
+        new JsonSchemaFactory.Builder().setMaxMessages(0);
+    }
+}
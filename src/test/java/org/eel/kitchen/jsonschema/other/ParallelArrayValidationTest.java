@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.*;
+
+public final class ParallelArrayValidationTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private ExecutorService executor;
+    private JsonNode schema;
+    private JsonNode valid;
+    private JsonNode invalid;
+
+    @BeforeClass
+    public void init()
+    {
+        executor = Executors.newFixedThreadPool(4);
+
+        final ObjectNode items = factory.objectNode();
+        items.put("type", "integer");
+        items.put("minimum", 0);
+
+        final ObjectNode node = factory.objectNode();
+        node.put("items", items);
+        schema = node;
+
+        final ArrayNode array1 = factory.arrayNode();
+        final ArrayNode array2 = factory.arrayNode();
+
+        for (int i = 0; i < 10000; i++) {
+            array1.add(i);
+            array2.add(i % 7 == 0 ? -i : i);
+        }
+
+        array2.add("foo");
+
+        valid = array1;
+        invalid = array2;
+    }
+
+    @AfterClass
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    public void parallelValidationGivesTheSameResults()
+    {
+        final JsonSchema sequential
+            = JsonSchemaFactory.defaultFactory().fromSchema(schema);
+        final JsonSchema parallel = new JsonSchemaFactory.Builder()
+            .enableParallelArrays(executor, 100).build().fromSchema(schema);
+
+        ValidationReport expected, actual;
+
+        expected = sequential.validate(valid);
+        actual = parallel.validate(valid);
+        assertTrue(expected.isSuccess());
+        assertTrue(actual.isSuccess());
+        assertTrue(parallel.isValid(valid));
+
+        expected = sequential.validate(invalid);
+        actual = parallel.validate(invalid);
+        assertFalse(actual.isSuccess());
+        assertEquals(actual.getMessages(), expected.getMessages());
+        assertFalse(parallel.isValid(invalid));
+    }
+
+    @Test
+    public void rejectedChunksAreRunByTheValidatingThread()
+    {
+        final ExecutorService dead = Executors.newSingleThreadExecutor();
+        dead.shutdown();
+
+        final JsonSchema sequential
+            = JsonSchemaFactory.defaultFactory().fromSchema(schema);
+        final JsonSchema parallel = new JsonSchemaFactory.Builder()
+            .enableParallelArrays(dead, 100).build().fromSchema(schema);
+
+        assertEquals(parallel.validate(invalid).getMessages(),
+            sequential.validate(invalid).getMessages());
+    }
+
+    @Test
+    public void messageLimitsApplyToParallelValidation()
+    {
+        final JsonSchema parallel = new JsonSchemaFactory.Builder()
+            .enableParallelArrays(executor, 100).setMaxMessages(10).build()
+            .fromSchema(schema);
+
+        assertEquals(parallel.validate(invalid).size(), 10);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.main.RecordListener;
+import org.eel.kitchen.jsonschema.main.RecordStreamValidator;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.*;
+
+public final class RecordStreamValidatorTest
+{
+    private static final String INPUT = "{\"a\":1}\n"
+        + "{\"a\":\"x\"}\n"
+        + "\n"
+        + "{\"a\":2} {\"a\":true}\n";
+
+    private RecordStreamValidator validator;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+        throws IOException
+    {
+        final JsonNode schemaNode = JsonLoader.fromString("{\"properties\":"
+            + "{\"a\":{\"type\":\"integer\"}}}");
+        final JsonSchema schema
+            = JsonSchemaFactory.defaultFactory().fromSchema(schemaNode);
+        validator = new RecordStreamValidator(schema);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    public void recordsAreReportedInOrderWithTheirLocation()
+        throws IOException
+    {
+        final Collector collector = new Collector();
+
+        final long count = validator.validate(bytes(INPUT), collector);
+
+        assertEquals(count, 4L);
+        assertEquals(collector.lines, Lists.newArrayList(1L, 2L, 4L, 4L));
+        assertEquals(collector.offsets, Lists.newArrayList(0L, 8L, 19L, 27L));
+        assertEquals(collector.results,
+            Lists.newArrayList(true, false, true, false));
+    }
+
+    @Test
+    public void readerInputGivesCharacterOffsets()
+        throws IOException
+    {
+        final Collector collector = new Collector();
+
+        validator.validate(new StringReader("\"\u00E9\" {\"a\":\"x\"}"),
+            collector);
+
+        assertEquals(collector.offsets, Lists.newArrayList(0L, 4L));
+        assertEquals(collector.results, Lists.newArrayList(true, false));
+    }
+
+    @Test
+    public void pipelinedModeGivesTheSameResults()
+        throws IOException
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 1000; i++)
+            sb.append(i % 3 == 0 ? "{\"a\":\"x\"}\n" : "{\"a\":1}\n");
+
+        final Collector expected = new Collector();
+        final Collector actual = new Collector();
+
+        validator.validate(bytes(sb.toString()), expected);
+        final long count = validator.validatePipelined(bytes(sb.toString()),
+            actual, executor);
+
+        assertEquals(count, 1000L);
+        assertEquals(actual.lines, expected.lines);
+        assertEquals(actual.offsets, expected.offsets);
+        assertEquals(actual.results, expected.results);
+    }
+
+    @Test(timeOut = 30000L)
+    public void pipelinedModeWorksFromTheOnlyThreadOfItsExecutor()
+        throws Exception
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 1000; i++)
+            sb.append(i % 3 == 0 ? "{\"a\":\"x\"}\n" : "{\"a\":1}\n");
+
+        final Collector expected = new Collector();
+        validator.validate(bytes(sb.toString()), expected);
+
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+
+        try {
+            for (final String input: new String[] { sb.toString(), INPUT }) {
+                final Collector actual = new Collector();
+                final Future<Long> future = single.submit(new Callable<Long>()
+                {
+                    @Override
+                    public Long call()
+                        throws IOException
+                    {
+                        return validator.validatePipelined(bytes(input),
+                            actual, single);
+                    }
+                });
+                assertEquals(future.get().longValue(), (long) actual.lines
+                    .size());
+                if (input == INPUT)
+                    continue;
+                assertEquals(actual.lines, expected.lines);
+                assertEquals(actual.offsets, expected.offsets);
+                assertEquals(actual.results, expected.results);
+            }
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void emptyInputHasNoRecords()
+        throws IOException
+    {
+        final Collector collector = new Collector();
+
+        assertEquals(validator.validate(bytes(" \n"), collector), 0L);
+        assertEquals(validator.validatePipelined(bytes(""), collector,
+            executor), 0L);
+        assertTrue(collector.lines.isEmpty());
+    }
+
+    @Test
+    public void malformedInputIsReportedAfterPreviousRecords()
+    {
+        final Collector collector = new Collector();
+
+        try {
+            validator.validate(bytes("{\"a\":1}\n{\"a\":"), collector);
+            fail("No exception thrown!");
+        } catch (IOException ignored) {
+            assertEquals(collector.results, Lists.newArrayList(true));
+        }
+
+        try {
+            validator.validatePipelined(bytes("{\"a\":1}\n]"), collector,
+                executor);
+            fail("No exception thrown!");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void listenerFailuresArePropagated()
+        throws IOException
+    {
+        final RecordListener listener = new RecordListener()
+        {
+            @Override
+            public void onRecord(final long lineNumber, final long offset,
+                final ValidationReport report)
+            {
+                throw new IllegalStateException("boom");
+            }
+        };
+
+        try {
+            validator.validatePipelined(bytes(INPUT), listener, executor);
+            fail("No exception thrown!");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "boom");
+        }
+    }
+
+    private static InputStream bytes(final String input)
+    {
+        return new ByteArrayInputStream(input.getBytes(Charsets.UTF_8));
+    }
+
+    private static final class Collector
+        implements RecordListener
+    {
+        private final List<Long> lines = Lists.newArrayList();
+        private final List<Long> offsets = Lists.newArrayList();
+        private final List<Boolean> results = Lists.newArrayList();
+
+        @Override
+        public void onRecord(final long lineNumber, final long offset,
+            final ValidationReport report)
+        {
+            lines.add(lineNumber);
+            offsets.add(offset);
+            results.add(report.isSuccess());
+        }
+    }
+}
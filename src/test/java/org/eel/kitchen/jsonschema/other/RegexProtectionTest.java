@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Strings;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.main.ValidationFeature;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+public final class RegexProtectionTest
+{
+    private static final String EVIL = "^(a+)+$";
+
+    /*
+     * The budget counts characters read by the regex engine: as any engine
+     * must read the whole input to tell that it does not match, the budget
+     * is exceeded whatever the backtracking optimizations of the JDK.
+     */
+    private static final long BUDGET = 20L;
+    private static final String INPUT
+        = "\"" + Strings.repeat("a", 200) + "!\"";
+
+    private static final JsonSchemaFactory budgeted
+        = new JsonSchemaFactory.Builder().setRegexBudget(BUDGET).build();
+
+    @Test
+    public void patternMatchingIsAbandonedWhenOverBudget()
+        throws IOException
+    {
+        final JsonSchema schema = budgeted.fromSchema(
+            JsonLoader.fromString("{\"pattern\":\"" + EVIL + "\"}"));
+        final JsonNode instance = JsonLoader.fromString(INPUT);
+
+        final ValidationReport report = schema.validate(instance);
+
+        assertFalse(report.isSuccess());
+        assertEquals(report.getMessages().size(), 1);
+        assertTrue(report.getMessages().get(0).contains("budget"));
+        assertFalse(schema.isValid(instance));
+        assertTrue(schema.isValid(JsonLoader.fromString("\"aaaa\"")));
+    }
+
+    @Test
+    public void unbudgetableMatchesAreAbandoned()
+        throws IOException
+    {
+        JsonSchema schema;
+        ValidationReport report;
+
+        // Inputs with surrogates cannot be matched with a budget
+        schema = budgeted.fromSchema(
+            JsonLoader.fromString("{\"pattern\":\"" + EVIL + "\"}"));
+        report = schema.validate(JsonLoader.fromString(
+            "\"" + Strings.repeat("a", 24) + "!\\ud83d\\ude00\""));
+        assertEquals(report.getMessages().size(), 1);
+        assertTrue(report.getMessages().get(0).contains("budget"));
+
+        // Neither can regexes which are not translated
+        schema = budgeted.fromSchema(
+            JsonLoader.fromString("{\"pattern\":\"^(a+)+\\\\1$\"}"));
+        report = schema.validate(JsonLoader.fromString(INPUT));
+        assertEquals(report.getMessages().size(), 1);
+        assertTrue(report.getMessages().get(0).contains("budget"));
+    }
+
+    @Test
+    public void patternPropertiesMatchingIsAbandonedWhenOverBudget()
+        throws IOException
+    {
+        final JsonSchema schema = budgeted.fromSchema(JsonLoader.fromString(
+            "{\"patternProperties\":{\"" + EVIL + "\":{}}}"));
+        final JsonNode instance = JsonLoader.fromString("{" + INPUT + ":1}");
+
+        final ValidationReport report = schema.validate(instance);
+
+        assertFalse(report.isSuccess());
+        assertEquals(report.getMessages().size(), 1);
+        assertTrue(report.getMessages().get(0).contains("budget"));
+        assertFalse(schema.isValid(instance));
+        assertTrue(schema.validate(JsonLoader.fromString("{\"aaa\":1}"))
+            .isSuccess());
+    }
+
+    @Test
+    public void backtrackingProneRegexesCanBeRejected()
+        throws IOException
+    {
+        final JsonSchemaFactory factory = new JsonSchemaFactory.Builder()
+            .enableFeature(ValidationFeature.REJECT_BACKTRACKING_REGEXES)
+            .build();
+        final JsonNode schemaNode
+            = JsonLoader.fromString("{\"pattern\":\"" + EVIL + "\"}");
+        final JsonNode instance = JsonLoader.fromString("\"aaa\"");
+
+        assertTrue(JsonSchemaFactory.defaultFactory().fromSchema(schemaNode)
+            .validate(instance).isSuccess());
+        assertFalse(factory.fromSchema(schemaNode).validate(instance)
+            .isSuccess());
+
+        final JsonNode formatSchema
+            = JsonLoader.fromString("{\"format\":\"regex\"}");
+        final JsonNode regex = JsonLoader.fromString("\"" + EVIL + "\"");
+
+        assertTrue(JsonSchemaFactory.defaultFactory().fromSchema(formatSchema)
+            .validate(regex).isSuccess());
+        assertFalse(factory.fromSchema(formatSchema).validate(regex)
+            .isSuccess());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void budgetMustBePositive()
+    {
+        new JsonSchemaFactory.Builder().setRegexBudget(0L);
+    }
+}
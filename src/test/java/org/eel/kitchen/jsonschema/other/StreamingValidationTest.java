@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.other;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eel.kitchen.jsonschema.main.JsonSchema;
+import org.eel.kitchen.jsonschema.main.JsonSchemaException;
+import org.eel.kitchen.jsonschema.main.JsonSchemaFactory;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.JsonLoader;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.testng.internal.annotations.Sets;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public final class StreamingValidationTest
+{
+    private static final String[] KEYWORDS = {
+        "additionalItems", "additionalProperties", "dependenciesSchema",
+        "dependenciesSimple", "disallow", "divisibleBy", "enum", "extends",
+        "maxItems", "maxLength", "maximum", "minItems", "minLength", "minimum",
+        "pattern", "properties", "type", "typeSimple", "uniqueItems"
+    };
+
+    private static final JsonSchemaFactory factory
+        = JsonSchemaFactory.defaultFactory();
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    @DataProvider
+    public Iterator<Object[]> getData()
+        throws IOException
+    {
+        final Set<Object[]> set = Sets.newHashSet();
+
+        JsonNode testData;
+
+        for (final String keyword: KEYWORDS) {
+            testData = JsonLoader.fromResource("/keyword/" + keyword
+                + ".json");
+            for (final JsonNode node: testData)
+                set.add(new Object[] { node.get("schema"), node.get("data") });
+        }
+
+        // Wrap the google API schemas, so that they are children of a
+        // container instance
+        final JsonNode googleAPI
+            = JsonLoader.fromResource("/other/google-json-api.json");
+        final ObjectNode schema = mapper.createObjectNode();
+        schema.put("additionalProperties", mapper.createObjectNode()
+            .put("$ref", "resource:/schema-draftv3.json#"));
+
+        set.add(new Object[] { schema, googleAPI.get("schemas") });
+
+        return set.iterator();
+    }
+
+    @Test(dataProvider = "getData")
+    public void streamingValidationGivesTheSameResults(final JsonNode schema,
+        final JsonNode data)
+        throws IOException
+    {
+        final JsonSchema jsonSchema = factory.fromSchema(schema);
+
+        final ValidationReport expected = jsonSchema.validate(data);
+        final ValidationReport actual = jsonSchema.validate(parserFor(data));
+
+        assertEquals(actual.getMessages(), expected.getMessages());
+    }
+
+    @Test
+    public void containerChildrenAreValidatedWhileStreaming()
+        throws IOException
+    {
+        final JsonNode googleAPI
+            = JsonLoader.fromResource("/other/google-json-api.json");
+        final ObjectNode schema = mapper.createObjectNode();
+        schema.put("additionalProperties", mapper.createObjectNode()
+            .put("$ref", "resource:/schema-draftv3.json#"));
+
+        final JsonSchema jsonSchema = factory.fromSchema(schema);
+        final ObjectNode data = (ObjectNode) googleAPI.get("schemas");
+
+        assertTrue(jsonSchema.validate(parserFor(data)).isSuccess());
+
+        data.with("Acl").put("type", 1);
+
+        final ValidationReport report = jsonSchema.validate(parserFor(data));
+        assertFalse(report.isSuccess());
+        assertTrue(report.getMessages().get(0).startsWith("/Acl/type: "));
+    }
+
+    @Test
+    public void consecutiveValuesCanBeValidated()
+        throws IOException, JsonSchemaException
+    {
+        final JsonSchema schema
+            = factory.fromSchema(mapper.readTree("{\"minItems\": 2}"));
+        final JsonParser parser
+            = jsonFactory.createJsonParser("[1, 2] [3] [4, [5, 6]]");
+
+        assertTrue(schema.validate(parser).isSuccess());
+        assertEquals(parser.getCurrentToken(), JsonToken.END_ARRAY);
+        parser.nextToken();
+        assertFalse(schema.validate(parser).isSuccess());
+        parser.nextToken();
+        assertTrue(schema.validate(parser).isSuccess());
+        assertNull(parser.nextToken());
+    }
+
+    @Test
+    public void largeArraysAreCheckedAgainstTheirSize()
+        throws IOException
+    {
+        final JsonSchema schema = factory.fromSchema(mapper.readTree(
+            "{\"maxItems\": 10, \"minItems\": 1, \"type\": \"array\"}"));
+        final ArrayNode data = mapper.createArrayNode();
+
+        for (int i = 0; i < 100000; i++)
+            data.add(i);
+
+        final ValidationReport expected = schema.validate(data);
+        final ValidationReport actual = schema.validate(parserFor(data));
+
+        assertEquals(actual.getMessages(), expected.getMessages());
+        assertEquals(actual.getMessages().size(), 1);
+    }
+
+    @Test(expectedExceptions = EOFException.class)
+    public void emptyInputIsAnError()
+        throws IOException
+    {
+        final JsonSchema schema
+            = factory.fromSchema(mapper.createObjectNode());
+
+        schema.validate(jsonFactory.createJsonParser(""));
+    }
+
+    private static JsonParser parserFor(final JsonNode node)
+        throws IOException
+    {
+        return jsonFactory.createJsonParser(mapper.writeValueAsString(node));
+    }
+}
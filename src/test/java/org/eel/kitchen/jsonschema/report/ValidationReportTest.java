@@ -96,4 +96,70 @@ public final class ValidationReportTest
         assertTrue(r1.hasFatalError());
         assertEquals(r1.size(), 1);
     }
+
+    @Test
+    public void failFastReportRecordsFailuresWithoutMessages()
+    {
+        final ValidationReport report = ValidationReport.failFastReport();
+
+        assertTrue(report.isFailFast());
+        assertTrue(report.isSuccess());
+        assertFalse(report.shouldStop());
+
+        assertTrue(report.failFast());
+        assertFalse(report.isSuccess());
+        assertTrue(report.shouldStop());
+        assertFalse(report.hasFatalError());
+        assertEquals(report.size(), 0);
+    }
+
+    @Test
+    public void failFastModeIsInheritedAndMerged()
+    {
+        final ValidationReport report = ValidationReport.failFastReport();
+        final ValidationReport copy = report.copy();
+
+        assertTrue(copy.isFailFast());
+        copy.failFast();
+
+        report.mergeWith(copy);
+        assertFalse(report.isSuccess());
+    }
+
+    @Test
+    public void regularReportDoesNotFailFast()
+    {
+        final ValidationReport report = new ValidationReport();
+
+        assertFalse(report.failFast());
+        assertTrue(report.isSuccess());
+        assertFalse(report.shouldStop());
+    }
+
+    @Test
+    public void limitsAreEnforcedAndInherited()
+    {
+        final Message msg = Domain.VALIDATION.newMessage()
+            .setKeyword("N/A").setMessage("foo").build();
+
+        final ValidationReport report = new ValidationReport(3, 2);
+
+        report.addMessage(msg);
+        report.addMessage(msg);
+        assertFalse(report.shouldStop());
+        assertTrue(report.failFast());
+        report.addMessage(msg);
+        assertEquals(report.size(), 2);
+        assertTrue(report.isTruncated());
+
+        final ValidationReport copy = report.copy();
+        copy.addMessage(msg);
+        copy.addMessage(msg);
+        copy.addMessage(msg);
+        assertEquals(copy.size(), 2);
+
+        report.mergeWith(copy);
+        assertEquals(report.size(), 2);
+        assertFalse(report.shouldStop());
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Maps;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.*;
+
+public final class DuplicateFinderTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void initExecutor()
+    {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public void shutdownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void firstDuplicatePairIsReported()
+        throws IOException
+    {
+        final JsonNode array
+            = JsonLoader.fromString("[1, 2, 3, 2, 1, 3]");
+
+        assertEquals(DuplicateFinder.findDuplicate(array), new int[] { 1, 3 });
+        assertNull(DuplicateFinder.findDuplicate(
+            JsonLoader.fromString("[1, 2, 3]")));
+        assertNull(DuplicateFinder.findDuplicate(
+            JsonLoader.fromString("[]")));
+    }
+
+    @Test
+    public void nodeEqualityIsHonored()
+    {
+        final ArrayNode array = factory.arrayNode();
+
+        array.add(0.0).add(1);
+        assertNull(DuplicateFinder.findDuplicate(array));
+
+        array.add(-0.0);
+        assertEquals(DuplicateFinder.findDuplicate(array), new int[] { 0, 2 });
+
+        final ArrayNode longs = factory.arrayNode();
+
+        longs.add(1).add(1L);
+        assertNull(DuplicateFinder.findDuplicate(longs));
+
+        final ArrayNode nans = factory.arrayNode();
+        nans.add(Double.NaN).add(Double.NaN);
+        assertNull(DuplicateFinder.findDuplicate(nans));
+    }
+
+    @Test
+    public void objectMemberOrderIsNotSignificant()
+        throws IOException
+    {
+        final JsonNode array = JsonLoader.fromString(
+            "[{\"a\":1,\"b\":{\"c\":[true,null]}},{\"a\":1},"
+            + "{\"b\":{\"c\":[true,null]},\"a\":1}]");
+
+        assertEquals(DuplicateFinder.findDuplicate(array), new int[] { 0, 2 });
+    }
+
+    @Test
+    public void resultsAreTheSameAsWithNodeEquality()
+    {
+        final Random random = new Random(0L);
+
+        ArrayNode array;
+
+        for (int i = 0; i < 2000; i++) {
+            array = factory.arrayNode();
+            for (int n = random.nextInt(20); n > 0; n--)
+                array.add(randomNode(random, random.nextInt(4)));
+            assertEquals(DuplicateFinder.findDuplicate(array),
+                naiveFindDuplicate(array), array.toString());
+        }
+    }
+
+    @Test
+    public void parallelResultsAreTheSameAsSequentialResults()
+    {
+        final Random random = new Random(1L);
+        final int[] kinds = { 0, 1, 2, 3 };
+
+        ArrayNode array;
+
+        for (final int kind: kinds) {
+            array = factory.arrayNode();
+            for (int i = 0; i < 20000; i++)
+                array.add(randomOfKind(random, kind, i));
+            assertNull(DuplicateFinder.findDuplicate(array, executor));
+            array.insert(12345, array.get(17000));
+            assertEquals(DuplicateFinder.findDuplicate(array, executor),
+                new int[] { 12345, 17001 });
+            assertEquals(DuplicateFinder.findDuplicate(array),
+                new int[] { 12345, 17001 });
+        }
+    }
+
+    private static JsonNode randomOfKind(final Random random, final int kind,
+        final int index)
+    {
+        switch (kind) {
+            case 0:
+                return factory.numberNode(index);
+            case 1:
+                return factory.numberNode(index + 0.5);
+            case 2:
+                return factory.textNode("s" + index);
+            default:
+                final ObjectNode ret = factory.objectNode();
+                ret.put("id", index);
+                ret.put("data", randomNode(random, 2));
+                return ret;
+        }
+    }
+
+    private static JsonNode randomNode(final Random random, final int depth)
+    {
+        final int type = random.nextInt(depth == 0 ? 5 : 7);
+
+        switch (type) {
+            case 0:
+                return factory.numberNode(random.nextInt(3));
+            case 1:
+                return factory.numberNode(random.nextInt(2) * 0.5);
+            case 2:
+                return factory.textNode(String.valueOf(random.nextInt(3)));
+            case 3:
+                return factory.booleanNode(random.nextBoolean());
+            case 4:
+                return factory.nullNode();
+            case 5:
+                final ArrayNode array = factory.arrayNode();
+                for (int n = random.nextInt(3); n > 0; n--)
+                    array.add(randomNode(random, depth - 1));
+                return array;
+            default:
+                final ObjectNode object = factory.objectNode();
+                for (int n = random.nextInt(3); n > 0; n--)
+                    object.put(String.valueOf((char) ('a' + random.nextInt(3))),
+                        randomNode(random, depth - 1));
+                return object;
+        }
+    }
+
+    private static int[] naiveFindDuplicate(final JsonNode array)
+    {
+        final Map<JsonNode, Integer> seen = Maps.newHashMap();
+
+        Integer first;
+
+        for (int i = 0; i < array.size(); i++) {
+            first = seen.get(array.get(i));
+            if (first != null)
+                return new int[] { first, i };
+            seen.put(array.get(i), i);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public final class EcmaRegexSetTest
+{
+    private static final List<String> REGEXES = ImmutableList.of(
+        "^en$", "^en-[A-Z]{2}$", "^fr", "^fre?", "^f.*r", "[0-9]+",
+        "^de|^at", "^x-\\w+$", "^$", "^e\\."
+    );
+
+    private static final String[] INPUTS = {
+        "", "en", "en-US", "en-us", "fr", "f", "fo", "for", "fe", "de", "at",
+        "x-foo", "x-", "e.", "ex", "123", "en1"
+    };
+
+    @Test
+    public void literalPrefixesAreCorrectlyExtracted()
+    {
+        assertEquals(EcmaRegexSet.literalPrefix("^en$"), "en");
+        assertEquals(EcmaRegexSet.literalPrefix("^en-[A-Z]"), "en-");
+        assertEquals(EcmaRegexSet.literalPrefix("^fre?"), "fr");
+        assertEquals(EcmaRegexSet.literalPrefix("^x-\\w"), "x-");
+        assertNull(EcmaRegexSet.literalPrefix("en"));
+        assertNull(EcmaRegexSet.literalPrefix("^a|b"));
+        assertNull(EcmaRegexSet.literalPrefix("^a*"));
+        assertNull(EcmaRegexSet.literalPrefix("^.a"));
+        assertNull(EcmaRegexSet.literalPrefix("^$"));
+    }
+
+    @Test
+    public void matchesAreTheSameAsTryingAllRegexes()
+    {
+        final EcmaRegexSet set = new EcmaRegexSet(REGEXES);
+
+        List<Integer> expected;
+        List<Integer> actual;
+
+        for (final String input: INPUTS) {
+            expected = Lists.newArrayList();
+            for (int i = 0; i < REGEXES.size(); i++)
+                if (RhinoHelper.regMatch(REGEXES.get(i), input))
+                    expected.add(i);
+            actual = Lists.newArrayList();
+            for (final int index: set.getMatches(input))
+                actual.add(index);
+            assertEquals(actual, expected, "input: " + input);
+            assertEquals(set.matchesAny(input), !expected.isEmpty());
+        }
+    }
+
+    @Test
+    public void setsAreSharedBySchemaNode()
+        throws IOException
+    {
+        final JsonNode node = JsonLoader.fromString("{\"^a\":{},\"b\":{}}");
+        final JsonNode other = JsonLoader.fromString("{\"^a\":{},\"b\":{}}");
+
+        final EcmaRegexSet set = EcmaRegexSet.forPatternProperties(node);
+
+        assertSame(EcmaRegexSet.forPatternProperties(node), set);
+        assertNotSame(EcmaRegexSet.forPatternProperties(other), set);
+        assertEquals(set.getRegexes(), ImmutableList.of("^a", "b"));
+    }
+}
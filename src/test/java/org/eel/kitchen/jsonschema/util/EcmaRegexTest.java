@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import static org.testng.Assert.*;
+
+public final class EcmaRegexTest
+{
+    private static final String[] INPUTS = {
+        "", "a", "abc", "ABC", "a b", "a\nb", "a\r\nb", "\n", "foo.bar",
+        "x-y", "[&&]", "a{2}", "aaa", "\u00A0", "\u2028", "\u0085", "_9",
+        "caf\u00E9", "\u0000", "\u000b", "\t ", "\u00E9", "a^b", "a$", "ab\n",
+        "\uD83D\uDE00", "a\uD83D\uDE00b"
+    };
+
+    private static final String[] TRANSLATED = {
+        "a", "^abc$", "a.b", "^.$", "\\s", "\\S", "^\\s+$", "\\w+", "\\W",
+        "\\d", "\\bb", "a\\B", "[a-c]+", "[^a-c]", "[\\s]", "[^\\s]",
+        "[\\S]", "[]", "[^]", "[[]", "[&&]", "[a-]", "[-a]", "\\v", "\\0",
+        "\\cJ", "\\cj", "\\x41", "\\u00e9", "a{2}", "a{2,}", "a{1,2}?",
+        "(?:a|b)+", "(?=a)", "(?!a)b", "\\.", "\\$", "[\\b]", "\\n$",
+        "^[a-z][a-z0-9_-]*$", "\\^", "a*?", "[.$^]", "\u00E9+"
+    };
+
+    private static final String[] NOT_TRANSLATED = {
+        "(a)\\1", "\\01", "a{", "a{,2}", "\\c1", "\\x4", "\\u12", "\\a",
+        "[^\\S]", "\\ud83d", "a\\_"
+    };
+
+    @DataProvider
+    public Iterator<Object[]> getData()
+    {
+        final List<Object[]> list = Lists.newArrayList();
+
+        for (final String regex: TRANSLATED)
+            for (final String input: INPUTS)
+                list.add(new Object[] { regex, input });
+
+        for (final String regex: NOT_TRANSLATED)
+            for (final String input: INPUTS)
+                list.add(new Object[] { regex, input });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "getData")
+    public void matchingIsTheSameAsWithRhino(final String regex,
+        final String input)
+    {
+        assertEquals(EcmaRegex.compile(regex).matches(input),
+            RhinoHelper.regMatch(regex, input), "regex: " + regex);
+    }
+
+    @Test
+    public void commonRegexesAreTranslated()
+    {
+        for (final String regex: TRANSLATED)
+            assertTrue(EcmaRegex.compile(regex).isTranslated(), regex);
+    }
+
+    @Test
+    public void unsupportedConstructsFallBackToRhino()
+    {
+        for (final String regex: NOT_TRANSLATED)
+            assertFalse(EcmaRegex.compile(regex).isTranslated(), regex);
+    }
+
+    @Test(expectedExceptions = RegexBudgetExceededException.class)
+    public void inputsWithSurrogatesFailBudgetedMatches()
+    {
+        EcmaRegex.compile("^(a+)+$").matches("aaaa!\uD83D\uDE00", 20L);
+    }
+
+    @Test(expectedExceptions = RegexBudgetExceededException.class)
+    public void untranslatedRegexesFailBudgetedMatches()
+    {
+        EcmaRegex.compile("^(a+)+\\1$").matches("aaaa!", 20L);
+    }
+
+    @Test
+    public void compiledRegexesAreCached()
+    {
+        assertSame(EcmaRegex.compile("^a+$"), EcmaRegex.compile("^a+$"));
+    }
+
+    @Test
+    public void characterClassesMatchLikeRhinoForAllCharacters()
+    {
+        final String[] regexes = { "\\s", "\\w", "\\d", ".", "\\b", "[\\S]" };
+        final Object[] compiled = new Object[regexes.length];
+        final EcmaRegex[] translated = new EcmaRegex[regexes.length];
+
+        for (int i = 0; i < regexes.length; i++) {
+            compiled[i] = RhinoHelper.compile(regexes[i]);
+            translated[i] = EcmaRegex.compile(regexes[i]);
+        }
+
+        String input;
+
+        for (char c = 0; c < '\ud800'; c++) {
+            input = String.valueOf(c);
+            for (int i = 0; i < regexes.length; i++)
+                assertEquals(translated[i].matches(input),
+                    RhinoHelper.test(compiled[i], input),
+                    regexes[i] + " with character " + (int) c);
+        }
+
+        for (char c = '\uE000'; c != 0; c++) {
+            input = String.valueOf(c);
+            for (int i = 0; i < regexes.length; i++)
+                assertEquals(translated[i].matches(input),
+                    RhinoHelper.test(compiled[i], input),
+                    regexes[i] + " with character " + (int) c);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.util;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public final class RegexAnalyzerTest
+{
+    @DataProvider
+    public Object[][] getData()
+    {
+        return new Object[][] {
+            { "^(a+)+$", true },
+            { "(a*)*", true },
+            { "^(\\w+\\s?)*$", true },
+            { "((ab)+c)+", true },
+            { "(a+){2,}", true },
+            { "(?:x|y+)+", true },
+            { "^(a|ab)*$", true },
+            { "(a|a)+b", true },
+            { "^[a-z]+$", false },
+            { "(a+)?", false },
+            { "(a+){1}", false },
+            { "^(ab)+$", false },
+            { "(a|b)*", false },
+            { "\\d+-\\d+", false },
+            { "[(+]+", false },
+            { "\\(a+\\)+", false },
+            { "^([a-z]{2})(-[A-Z]{2})?$", false }
+        };
+    }
+
+    @Test(dataProvider = "getData")
+    public void backtrackingProneRegexesAreDetected(final String regex,
+        final boolean prone)
+    {
+        assertEquals(RegexAnalyzer.isBacktrackingProne(regex), prone, regex);
+    }
+}
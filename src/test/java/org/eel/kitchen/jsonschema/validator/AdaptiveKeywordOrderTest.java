@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.validator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.eel.kitchen.jsonschema.keyword.KeywordValidator;
+import org.eel.kitchen.jsonschema.report.Domain;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.util.NodeType;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public final class AdaptiveKeywordOrderTest
+{
+    private static final JsonNode INSTANCE
+        = JsonNodeFactory.instance.textNode("");
+
+    private final ValidationContext context = new ValidationContext(null);
+
+    @Test
+    public void oftenFailingKeywordsAreMovedFirst()
+    {
+        final KeywordValidator passing = new FixedValidator(false, 10);
+        final KeywordValidator failing = new FixedValidator(true, 10);
+        final AdaptiveKeywordOrder order = new AdaptiveKeywordOrder(
+            new KeywordValidator[] { passing, failing });
+
+        assertEquals(order.getValidators(),
+            new KeywordValidator[] { passing, failing });
+
+        ValidationReport report;
+
+        for (int i = 0; i < 64; i++) {
+            report = ValidationReport.failFastReport();
+            order.validate(context, report, INSTANCE);
+            assertFalse(report.isSuccess());
+        }
+
+        assertEquals(order.getValidators(),
+            new KeywordValidator[] { failing, passing });
+    }
+
+    @Test
+    public void costIsTakenIntoAccount()
+    {
+        final KeywordValidator cheap = new FixedValidator(false, 1);
+        final KeywordValidator expensive = new FixedValidator(true, 1000);
+        final AdaptiveKeywordOrder order = new AdaptiveKeywordOrder(
+            new KeywordValidator[] { cheap, expensive });
+
+        for (int i = 0; i < 64; i++)
+            order.validate(context, ValidationReport.failFastReport(),
+                INSTANCE);
+
+        assertEquals(order.getValidators(),
+            new KeywordValidator[] { cheap, expensive });
+    }
+
+    private static final class FixedValidator
+        extends KeywordValidator
+    {
+        private final boolean fails;
+        private final int cost;
+
+        private FixedValidator(final boolean fails, final int cost)
+        {
+            super("foo", NodeType.STRING);
+            this.fails = fails;
+            this.cost = cost;
+        }
+
+        @Override
+        public int getCost()
+        {
+            return cost;
+        }
+
+        @Override
+        protected void validate(final ValidationContext context,
+            final ValidationReport report, final JsonNode instance)
+        {
+            if (fails && !report.failFast())
+                report.addMessage(Domain.VALIDATION.newMessage()
+                    .setKeyword(keyword).setMessage("fail").build());
+        }
+
+        @Override
+        public String toString()
+        {
+            return keyword + ": " + (fails ? "fails" : "passes");
+        }
+    }
+}
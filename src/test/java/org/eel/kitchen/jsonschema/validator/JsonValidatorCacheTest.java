@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012, Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.eel.kitchen.jsonschema.validator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eel.kitchen.jsonschema.bundle.KeywordBundles;
+import org.eel.kitchen.jsonschema.ref.SchemaContainer;
+import org.eel.kitchen.jsonschema.ref.SchemaNode;
+import org.eel.kitchen.jsonschema.ref.SchemaRegistry;
+import org.eel.kitchen.jsonschema.report.ValidationReport;
+import org.eel.kitchen.jsonschema.uri.URIManager;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static org.testng.Assert.*;
+
+public final class JsonValidatorCacheTest
+{
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private SchemaRegistry registry;
+    private JsonValidatorCache cache;
+
+    @BeforeMethod
+    public void initCache()
+    {
+        final URIManager manager = new URIManager();
+        registry = new SchemaRegistry(manager, URI.create(""));
+        cache = new JsonValidatorCache(KeywordBundles.defaultBundle(),
+            registry);
+    }
+
+    @Test
+    public void compiledSchemaHasAllLinksResolved()
+    {
+        final ObjectNode schema = factory.objectNode();
+        final ObjectNode properties = factory.objectNode();
+        properties.put("p", factory.objectNode().put("type", "string"));
+        properties.put("q", factory.objectNode().put("$ref", "#"));
+        schema.put("properties", properties);
+        schema.put("items", factory.objectNode().put("$ref", "#"));
+
+        final SchemaContainer container = registry.register(schema);
+        final JsonValidator validator
+            = cache.compile(new SchemaNode(container, schema));
+
+        assertTrue(validator instanceof InstanceValidator);
+
+        final InstanceValidator root = (InstanceValidator) validator;
+
+        assertEquals(root.getLinks().size(), 3);
+        for (final LinkedValidator link: root.getLinks())
+            assertTrue(link.isResolved());
+
+        final LinkedValidator link = root.getLink(properties.get("q"));
+        assertNotNull(link);
+
+        final JsonValidator target = link.getTarget();
+        assertTrue(target instanceof InstanceValidator);
+        for (final LinkedValidator l: ((InstanceValidator) target).getLinks())
+            assertTrue(l.isResolved());
+    }
+
+    @Test
+    public void compiledRecursiveSchemaValidatesCorrectly()
+    {
+        final ObjectNode schema = factory.objectNode();
+        final ObjectNode properties = factory.objectNode();
+        properties.put("p", factory.objectNode().put("type", "string"));
+        properties.put("q", factory.objectNode().put("$ref", "#"));
+        schema.put("properties", properties);
+
+        final SchemaContainer container = registry.register(schema);
+        final JsonValidator validator
+            = cache.compile(new SchemaNode(container, schema));
+
+        ObjectNode instance;
+        ValidationReport report;
+
+        instance = factory.objectNode();
+        instance.put("q", factory.objectNode().put("p", "foo"));
+        report = validate(validator, instance);
+        assertTrue(report.isSuccess());
+
+        instance = factory.objectNode();
+        instance.put("q", factory.objectNode().put("p", 1));
+        report = validate(validator, instance);
+        assertFalse(report.isSuccess());
+    }
+
+    private ValidationReport validate(final JsonValidator validator,
+        final JsonNode instance)
+    {
+        final ValidationContext context = new ValidationContext(cache);
+        final ValidationReport report = new ValidationReport();
+        validator.validate(context, report, instance);
+        return report;
+    }
+}